@@ -0,0 +1,119 @@
+package schach;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compares a JMH json result file with a stored baseline and prints the change
+ * of every benchmark score. Scores are throughput, so higher is better. The
+ * baseline is a copy of the result of a full run with the iterations of the
+ * annotations, a result measured differently is reported.
+ */
+public final class BenchmarkCompare {
+	private static final Pattern benchmarkPattern = Pattern.compile("\"benchmark\"\\s*:\\s*\"([^\"]+)\"");
+	private static final Pattern paramsPattern = Pattern.compile("\"params\"\\s*:\\s*\\{([^}]*)\\}");
+	private static final Pattern iterationsPattern = Pattern
+			.compile("\"(warmupIterations|measurementIterations)\"\\s*:\\s*(\\d+)");
+	private static final Pattern scorePattern = Pattern
+			.compile("\"primaryMetric\"\\s*:\\s*\\{\\s*\"score\"\\s*:\\s*([-0-9.Ee+]+|\"NaN\")");
+
+	private BenchmarkCompare() {
+	}
+
+	/**
+	 * Entry point of the comparison
+	 *
+	 * @param args the baseline file and the result file
+	 * @throws IOException if a file can not be read
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length != 2) {
+			System.out.println("Usage: BenchmarkCompare <baseline.json> <result.json>");
+			System.exit(1);
+		}
+
+		Map<String, Double> baseline = readScores(args[0]);
+		Map<String, Double> result = readScores(args[1]);
+
+		String baselineIterations = readIterations(args[0]);
+		String resultIterations = readIterations(args[1]);
+		if (!baselineIterations.equals(resultIterations)) {
+			System.out.println("Warning: the baseline was measured with " + baselineIterations + ", the result with "
+					+ resultIterations);
+		}
+
+		System.out.printf("%-70s %15s %15s %8s%n", "Benchmark", "Baseline", "Result", "Change");
+		for (Map.Entry<String, Double> entry : result.entrySet()) {
+			Double base = baseline.get(entry.getKey());
+			if (base == null) {
+				System.out.printf("%-70s %15s %15.2f %8s%n", entry.getKey(), "-", entry.getValue(), "new");
+			} else {
+				double change = (entry.getValue() - base) / base * 100;
+				System.out.printf("%-70s %15.2f %15.2f %+7.1f%%%n", entry.getKey(), base, entry.getValue(), change);
+			}
+		}
+	}
+
+	/**
+	 * Read the primary score of every benchmark from a JMH json result file
+	 *
+	 * @param file the file to read
+	 * @return the scores by benchmark name and parameters
+	 * @throws IOException if the file can not be read
+	 */
+	static Map<String, Double> readScores(String file) throws IOException {
+		String json = new String(Files.readAllBytes(Paths.get(file)), "UTF-8");
+		Map<String, Double> scores = new LinkedHashMap<String, Double>();
+
+		// Every result starts with its benchmark name, followed by its params and
+		// its primary metric
+		Matcher benchmark = benchmarkPattern.matcher(json);
+		int start = benchmark.find() ? benchmark.start() : -1;
+		while (start >= 0) {
+			String name = benchmark.group(1);
+			int end = benchmark.find() ? benchmark.start() : json.length();
+			String part = json.substring(start, end);
+
+			Matcher params = paramsPattern.matcher(part);
+			if (params.find()) {
+				name += " [" + params.group(1).replaceAll("\\s+", "").replace("\"", "").replace(':', '=') + "]";
+			}
+
+			Matcher score = scorePattern.matcher(part);
+			if (score.find() && !score.group(1).equals("\"NaN\"")) {
+				scores.put(name, Double.parseDouble(score.group(1)));
+			}
+
+			start = end < json.length() ? end : -1;
+		}
+
+		return scores;
+	}
+
+	/**
+	 * Read the warmup and measurement iterations of a JMH json result file
+	 *
+	 * @param file the file to read
+	 * @return the distinct iteration settings of all benchmarks, e.g.
+	 *         "warmupIterations=3, measurementIterations=5"
+	 * @throws IOException if the file can not be read
+	 */
+	static String readIterations(String file) throws IOException {
+		String json = new String(Files.readAllBytes(Paths.get(file)), "UTF-8");
+		Set<String> iterations = new LinkedHashSet<String>();
+
+		Matcher matcher = iterationsPattern.matcher(json);
+		while (matcher.find()) {
+			iterations.add(matcher.group(1) + "=" + matcher.group(2));
+		}
+
+		return String.join(", ", iterations);
+	}
+}
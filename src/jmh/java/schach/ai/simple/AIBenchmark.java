@@ -0,0 +1,62 @@
+package schach.ai.simple;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import schach.board.*;
+import schach.board.simple.BenchmarkPositions;
+import schach.board.simple.Board;
+
+/**
+ * Benchmarks of the search, the evaluation is measured in
+ * {@link EvaluationBenchmark}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AIBenchmark {
+	@Param({ BenchmarkPositions.opening, BenchmarkPositions.middlegame, BenchmarkPositions.endgame })
+	private String position;
+
+	@Param({ "3" })
+	private int depth;
+
+	@Param({ "1", "4" })
+	private int threads;
+
+	private IBoard board;
+	private AI ai;
+
+	/**
+	 * Create the board of the position
+	 *
+	 * @throws BoardException if the fen is invalid
+	 */
+	@Setup
+	public void setup() throws BoardException {
+		board = new Board(BenchmarkPositions.fen(position));
+		// The helper threads of the AI live across searches
+		ai = new AI(AI.defaultTableSizeMb, threads);
+	}
+
+	/**
+	 * Every search starts without the results of the one before
+	 */
+	@Setup(Level.Invocation)
+	public void clearTable() {
+		ai.getTranspositionTable().clear();
+	}
+
+	/**
+	 * @return the best move at the fixed depth
+	 * @throws BoardException if there is no valid move
+	 */
+	@Benchmark
+	public Move getBestMove() throws BoardException {
+		return ai.getBestMove(board, depth);
+	}
+}
@@ -0,0 +1,48 @@
+package schach.ai.simple;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import schach.board.*;
+import schach.board.simple.BenchmarkPositions;
+import schach.board.simple.Board;
+
+/**
+ * Benchmarks of the evaluation. They are apart from the search benchmarks, so
+ * they neither run once per search parameter nor clear a transposition table
+ * before every call.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EvaluationBenchmark {
+	@Param({ BenchmarkPositions.opening, BenchmarkPositions.middlegame, BenchmarkPositions.endgame })
+	private String position;
+
+	private IBoard board;
+
+	/**
+	 * Create the board of the position
+	 *
+	 * @throws BoardException if the fen is invalid
+	 */
+	@Setup
+	public void setup() throws BoardException {
+		board = new Board(BenchmarkPositions.fen(position));
+	}
+
+	/**
+	 * The board keeps its valid moves and status after the first call, so this
+	 * measures the evaluation without move generation
+	 *
+	 * @return the evaluation
+	 */
+	@Benchmark
+	public int evaluate() {
+		return Evaluation.evaluate(board);
+	}
+}
@@ -0,0 +1,34 @@
+package schach.board.simple;
+
+/**
+ * The positions all benchmarks run over. Benchmarks take the name as parameter,
+ * so the results stay readable and comparable.
+ */
+public final class BenchmarkPositions {
+	/**
+	 * Names of the positions, to be used as values of a JMH parameter
+	 */
+	public static final String opening = "opening";
+	public static final String middlegame = "middlegame";
+	public static final String endgame = "endgame";
+
+	private BenchmarkPositions() {
+	}
+
+	/**
+	 * @param name the name of the position
+	 * @return the fen of the position
+	 */
+	public static String fen(String name) {
+		switch (name) {
+		case opening:
+			return "rnbqkb1r/pp3ppp/4pn2/3p4/2PP4/2N5/PP3PPP/R1BQKBNR w KQkq - 1 6";
+		case middlegame:
+			return "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10";
+		case endgame:
+			return "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1";
+		default:
+			throw new IllegalArgumentException("Unknown position " + name);
+		}
+	}
+}
@@ -0,0 +1,80 @@
+package schach.board.simple;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import schach.board.*;
+
+/**
+ * Benchmarks of the board: construction from fen, playing a move, move
+ * generation and attack detection
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark {
+	@Param({ BenchmarkPositions.opening, BenchmarkPositions.middlegame, BenchmarkPositions.endgame })
+	private String position;
+
+	private String fen;
+	private Board board;
+	private Move move;
+	private int kingSquare;
+
+	/**
+	 * Create the board of the position
+	 *
+	 * @throws BoardException if the fen is invalid
+	 */
+	@Setup
+	public void setup() throws BoardException {
+		fen = BenchmarkPositions.fen(position);
+		board = new Board(fen);
+
+		List<Move> moves = board.getValidMoves();
+		move = moves.get(moves.size() / 2);
+		kingSquare = board.getKingPosition(board.getSideToMove()).getSquare();
+	}
+
+	/**
+	 * @return a new board from the fen
+	 * @throws BoardException if the fen is invalid
+	 */
+	@Benchmark
+	public Board fromFen() throws BoardException {
+		return new Board(fen);
+	}
+
+	/**
+	 * @return the board after a move
+	 * @throws BoardException if the move is invalid
+	 */
+	@Benchmark
+	public IBoard move() throws BoardException {
+		return board.move(move).board;
+	}
+
+	/**
+	 * Valid moves of a fresh board, since boards calculate them only once
+	 *
+	 * @return the valid moves
+	 * @throws BoardException if the fen is invalid
+	 */
+	@Benchmark
+	public List<Move> getValidMoves() throws BoardException {
+		return new Board(board.getData()).getValidMoves();
+	}
+
+	/**
+	 * @return whether the king of the side to move is attacked
+	 */
+	@Benchmark
+	public boolean isPseudoAttacked() {
+		return board.getData().isPseudoAttacked(kingSquare, board.getSideToMove().getInverted());
+	}
+}
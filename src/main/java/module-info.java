@@ -5,6 +5,7 @@ module schach {
 	requires javafx.base;
 
 	exports schach;
+	exports schach.ai;
 	exports schach.board;
 
 	exports schach.gui.main to javafx.fxml;
@@ -3,6 +3,7 @@ package schach;
 import java.util.List;
 import java.util.Scanner;
 
+import schach.ai.SearchResult;
 import schach.board.Color;
 import schach.board.Position;
 import schach.command.CommandManager;
@@ -45,7 +46,10 @@ public class ConsoleMain {
 			gameType = GameType.LocalPlayer;
 		} else {
 			chooseGameType();
-			if (gameType == GameType.AIB) { game.playAIMove(); }
+			if (gameType == GameType.AIB) {
+				game.playAIMove();
+				printAIReport();
+			}
 		}
 		displayBoard();
 	}
@@ -72,7 +76,10 @@ public class ConsoleMain {
 				do {
 					System.out.println("Choose your difficulty");
 					System.out.println("Write a number between 2 and 5");
-					System.out.println("2 stands for easy. 5 stands for hard.");
+					for (Difficulty level : Difficulty.values()) {
+						System.out.println(level.getLevel() + " stands for " + level.name().toLowerCase() + ", at most "
+								+ level.getNodes() + " positions or " + level.getMoveTime() + " ms per move.");
+					}
 
 					difficulty = scanner.nextLine();
 				} while (!isDifficulty(difficulty));
@@ -190,6 +197,17 @@ public class ConsoleMain {
 		}
 	}
 
+	/**
+	 * Prints how many positions and how much time the AI used for its last move
+	 */
+	public void printAIReport() {
+		SearchResult result = game.getLastAIResult();
+		if (result == null) return;
+
+		System.out.println("AI: " + result.getNodes() + " positions in " + result.getTime() + " ms, depth "
+				+ result.getDepth());
+	}
+
 	/**
 	 * Print each item of the list into the console
 	 * 
@@ -0,0 +1,88 @@
+package schach;
+
+import schach.ai.SearchLimits;
+import schach.ai.simple.AI;
+import schach.ai.simple.SearchSettings;
+
+/**
+ * Represents the difficulty of the AI. Every level gives the AI a budget of
+ * positions and time per move instead of a fixed depth, so a move costs about
+ * the same in every position. Weaker levels also reduce more and extend less,
+ * so they overlook more tactics. Only the strongest level searches with more
+ * than one thread, the others keep their budget the same on every machine.
+ */
+public enum Difficulty {
+	Easy(2, 5_000, 250, 200, 0, 1), // Plays at once and misses tactics
+	Medium(3, 40_000, 1000, 150, 2, 1), // Sees simple tactics
+	Hard(4, 250_000, 2500, 100, 8, 1), // The full search with a small budget
+	Expert(5, 1_500_000, 5000, 100, 8, AI.defaultThreads); // The full search on all cores
+
+	private final int level;
+	private final long nodes;
+	private final long moveTime;
+	private final int reductionPercent;
+	private final int extensionBudget;
+	private final int threads;
+
+	Difficulty(int level, long nodes, long moveTime, int reductionPercent, int extensionBudget, int threads) {
+		this.level = level;
+		this.nodes = nodes;
+		this.moveTime = moveTime;
+		this.reductionPercent = reductionPercent;
+		this.extensionBudget = extensionBudget;
+		this.threads = threads;
+	}
+
+	/**
+	 * Get the difficulty of a level as chosen in the menus
+	 * 
+	 * @param level the level from 2 (easy) to 5 (expert)
+	 * @return the difficulty
+	 */
+	public static Difficulty fromLevel(int level) {
+		for (Difficulty difficulty : values()) {
+			if (difficulty.level == level) { return difficulty; }
+		}
+
+		throw new IllegalArgumentException("Unknown difficulty " + level);
+	}
+
+	public int getLevel() {
+		return level;
+	}
+
+	/**
+	 * @return the most positions the AI visits per move
+	 */
+	public long getNodes() {
+		return nodes;
+	}
+
+	/**
+	 * @return the longest time the AI thinks per move in milliseconds
+	 */
+	public long getMoveTime() {
+		return moveTime;
+	}
+
+	/**
+	 * @return the amount of threads the AI searches with
+	 */
+	public int getThreads() {
+		return threads;
+	}
+
+	/**
+	 * @return the limits of a search of this difficulty
+	 */
+	SearchLimits createLimits() {
+		return new SearchLimits().setNodes(nodes).setMoveTime(moveTime);
+	}
+
+	/**
+	 * @return the pruning and reduction settings of this difficulty
+	 */
+	SearchSettings createSettings() {
+		return new SearchSettings().setReductionPercent(reductionPercent).setExtensionBudget(extensionBudget);
+	}
+}
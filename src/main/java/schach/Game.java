@@ -2,8 +2,16 @@ package schach;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
 
 import schach.ai.IAI;
+import schach.ai.SearchLimits;
+import schach.ai.SearchResult;
+import schach.ai.simple.AI;
 import schach.board.BoardException;
 import schach.board.BoardResult;
 import schach.board.Color;
@@ -18,20 +26,46 @@ import schach.board.simple.Board;
  */
 public class Game {
 
-	private int depth;
+	// Milliseconds between the signals to a ponder search that has to end
+	private static final long ponderSignalInterval = 10;
+
+	private Difficulty difficulty = Difficulty.Expert;
+	private SearchResult lastAIResult;
+	private volatile boolean ponder;
+	// The search on the opponent's time, null if the AI does not ponder. The FX
+	// thread and the AI thread swap it as a whole, so only one of them ends it.
+	private final AtomicReference<Pondering> pondering = new AtomicReference<Pondering>();
 	private int historyIndex = -1;
 	private List<Move> history = new ArrayList<Move>();
 	private List<PieceType> beatenWhite = new ArrayList<PieceType>();
 	private List<PieceType> beatenBlack = new ArrayList<PieceType>();
 
 	private IBoard board;
-	private IAI ai;
+	private final IAI ai;
+
+	/**
+	 * A search on the opponent's time, the reply it expects and the index of the
+	 * reply in the history. It can not be changed, so the threads always see the
+	 * three together.
+	 */
+	private static final class Pondering {
+		private final FutureTask<Move> search;
+		private final Move move;
+		private final int index;
+
+		private Pondering(FutureTask<Move> search, Move move, int index) {
+			this.search = search;
+			this.move = move;
+			this.index = index;
+		}
+	}
 
 	/**
 	 * Create a new instance of a game
 	 */
 	public Game() {
-		ai = new schach.ai.simple.AI();
+		ai = new AI(AI.defaultTableSizeMb, difficulty.getThreads());
+		applyDifficulty();
 		this.board = (IBoard) new Board();
 	}
 
@@ -79,17 +113,116 @@ public class Game {
 	}
 
 	/**
-	 * Let the AI play the next move
+	 * Let the AI play the next move. The AI searches until the node or time budget
+	 * of the difficulty is used up, or it is stopped. It starts from what it
+	 * learned on its last move, until the game is taken back.
 	 */
 	public void playAIMove() {
 		try {
-			play(ai.getBestMove(this.board, depth));
+			Move move = null;
+			Pondering last = pondering.getAndSet(null);
+			if (last != null) {
+				boolean hit = last.move != null && historyIndex == last.index
+						&& history.get(historyIndex).equals(last.move);
+				move = finishPondering(last, hit);
+			}
+
+			if (move == null || !board.getValidMoves().contains(move)) {
+				move = ai.getBestMove(this.board, difficulty.createLimits());
+			}
+			lastAIResult = ai.getLastResult();
+			play(move);
 		} catch (BoardException e) {
 			e.printStackTrace();
 			// TODO exit application
 		}
 	}
 
+	/**
+	 * Let the AI think on the opponent's time if pondering is on. It searches the
+	 * position after the reply it expects, or the position of the opponent if it
+	 * expects none, which fills its transposition table for all replies.
+	 */
+	public void startPondering() {
+		stopPondering();
+		if (!ponder || board.getStatus().isOver()) { return; }
+
+		IBoard ponderBoard = board;
+		Move ponderMove = ai.getPonderMove();
+		if (ponderMove != null && board.getValidMoves().contains(ponderMove)) {
+			try {
+				ponderBoard = board.move(ponderMove).board;
+			} catch (BoardException e) {
+				e.printStackTrace();
+				return;
+			}
+		} else {
+			ponderMove = null;
+		}
+
+		// The expected reply ends the game, there is nothing to think about
+		if (ponderBoard.getStatus().isOver()) { return; }
+
+		IBoard searchBoard = ponderBoard;
+		SearchLimits limits = difficulty.createLimits().setPonder(true);
+		FutureTask<Move> search = new FutureTask<Move>(() -> ai.getBestMove(searchBoard, limits));
+		// Another thread may have started pondering since, end that search before
+		// this one starts
+		Pondering previous = pondering.getAndSet(new Pondering(search, ponderMove, historyIndex + 1));
+		finishPondering(previous, false);
+
+		Thread ponderThread = new Thread(search);
+		// Do not keep the application alive while the AI thinks on the opponent's time
+		ponderThread.setDaemon(true);
+		ponderThread.start();
+
+		// Pondering may have been turned off before the search was stored
+		if (!ponder) { stopPondering(); }
+	}
+
+	/**
+	 * Stop the AI thinking on the opponent's time, its transposition table keeps
+	 * what it found
+	 */
+	public void stopPondering() {
+		finishPondering(pondering.getAndSet(null), false);
+	}
+
+	/**
+	 * End the ponder search. On a hit the search goes on as the search of the AI
+	 * move, on a miss it is stopped.
+	 * 
+	 * @param last the ponder search, already taken from {@link #pondering}. May be
+	 *             null.
+	 * @param hit  whether the opponent played the expected reply
+	 * @return the move of the ponder search on a hit, else null
+	 */
+	private Move finishPondering(Pondering last, boolean hit) {
+		if (last == null) { return null; }
+
+		try {
+			while (true) {
+				// Signal again until the search ends, it may not have started when
+				// the signal was first sent
+				if (hit) {
+					ai.ponderHit();
+				} else {
+					ai.stop();
+				}
+
+				try {
+					Move move = last.search.get(ponderSignalInterval, TimeUnit.MILLISECONDS);
+					return hit ? move : null;
+				} catch (TimeoutException e) {
+					// Still searching
+				}
+			}
+		} catch (InterruptedException | ExecutionException e) {
+			e.printStackTrace();
+			return null;
+		}
+	}
+
 	/**
 	 * Undo the last move
 	 */
@@ -97,6 +230,11 @@ public class Game {
 		// Return if there is no move to undo
 		if (historyIndex < 0) { return; }
 
+		// The AI would think about a position that is gone, and its last search
+		// expects a different game
+		stopPondering();
+		ai.reset();
+
 		// Clear current board and beaten
 		board = (IBoard) new Board();
 		beatenWhite.clear();
@@ -137,6 +275,8 @@ public class Game {
 		// Return if there is no move to redo
 		if (history.size() <= historyIndex + 1) { return; }
 
+		stopPondering();
+		ai.reset();
 		try {
 			Move move = history.get(historyIndex + 1);
 			play(move);
@@ -173,11 +313,61 @@ public class Game {
 		return historyIndex;
 	}
 	
+	public Difficulty getAIDifficulty() {
+		return difficulty;
+	}
+
 	/**
 	 * Set the difficulty of the AI
 	 * @param difficulty the new difficulty
 	 */
-	public void setAIDifficulty(int difficulty) {
-		depth = difficulty;
+	public void setAIDifficulty(Difficulty difficulty) {
+		this.difficulty = difficulty;
+		applyDifficulty();
+	}
+
+	private void applyDifficulty() {
+		ai.setThreads(difficulty.getThreads());
+		// The settings are tuning of the search of this implementation
+		if (ai instanceof AI) { ((AI) ai).setSettings(difficulty.createSettings()); }
+	}
+
+	/**
+	 * Set the difficulty of the AI by its level
+	 * @param level the level from 2 (easy) to 5 (expert)
+	 */
+	public void setAIDifficulty(int level) {
+		setAIDifficulty(Difficulty.fromLevel(level));
+	}
+
+	/**
+	 * @return the positions, time and depth the AI used for its last move, null
+	 *         before its first move
+	 */
+	public SearchResult getLastAIResult() {
+		return lastAIResult;
+	}
+
+	public boolean isPonder() {
+		return ponder;
+	}
+
+	/**
+	 * Set whether the AI thinks on the opponent's time after its moves, see
+	 * {@link #startPondering()}
+	 * 
+	 * @param ponder whether the AI ponders
+	 */
+	public void setPonder(boolean ponder) {
+		this.ponder = ponder;
+		if (!ponder) { stopPondering(); }
+	}
+
+	/**
+	 * Stop the AI if it is thinking, it plays its best move so far at once. Can be
+	 * called from any thread.
+	 */
+	public void stopAI() {
+		ai.stop();
 	}
 }
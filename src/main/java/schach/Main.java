@@ -17,12 +17,46 @@ public class Main {
 		boolean noGui = argList.contains("--no-gui");
 		boolean useUnicodeSymbols = argList.contains("--unicode");
 		boolean simple = argList.contains("--simple");
+		int perftIndex = argList.indexOf("--perft");
 
-		if (noGui) {
+		if (perftIndex >= 0) {
+			System.exit(runPerft(argList, perftIndex) ? 0 : 1);
+		} else if (noGui) {
 			new ConsoleMain(useUnicodeSymbols, simple).startGameLoop();
 			System.exit(0);
 		} else {
 			GuiMain.init(args);
 		}
 	}
+
+	/**
+	 * Runs perft with the arguments {@code --perft <fen> <depth>} and the optional
+	 * {@code --threads <count>}
+	 */
+	private static boolean runPerft(List<String> argList, int perftIndex) {
+		if (perftIndex + 2 >= argList.size()) {
+			System.out.println("Usage: --perft <fen> <depth> [--threads <count>]");
+			return false;
+		}
+
+		String fen = argList.get(perftIndex + 1);
+		int threadsIndex = argList.indexOf("--threads");
+		try {
+			int depth = Integer.parseInt(argList.get(perftIndex + 2));
+			int threads = Runtime.getRuntime().availableProcessors();
+			if (threadsIndex >= 0 && threadsIndex + 1 < argList.size()) {
+				threads = Integer.parseInt(argList.get(threadsIndex + 1));
+			}
+
+			if (depth < 1 || threads < 1) {
+				System.out.println("Depth and thread count have to be at least 1");
+				return false;
+			}
+
+			return new PerftMain(fen, depth, threads).run();
+		} catch (NumberFormatException e) {
+			System.out.println("Usage: --perft <fen> <depth> [--threads <count>]");
+			return false;
+		}
+	}
 }
@@ -0,0 +1,86 @@
+package schach;
+
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import schach.board.*;
+import schach.board.simple.Board;
+import schach.board.simple.Perft;
+
+/**
+ * Runs perft on the console to validate and measure the move generator
+ */
+class PerftMain {
+	private String fen;
+	private int depth;
+	private int threads;
+
+	/**
+	 * Initialize a perft run
+	 *
+	 * @param fen     the position to start from
+	 * @param depth   the maximum depth in plies
+	 * @param threads the amount of threads to split the root moves across
+	 */
+	PerftMain(String fen, int depth, int threads) {
+		this.fen = fen;
+		this.depth = depth;
+		this.threads = threads;
+	}
+
+	/**
+	 * Prints the node count, time and nodes per second for every depth up to the
+	 * maximum depth, followed by the node count per root move at the maximum depth
+	 *
+	 * @return whether the run succeeded
+	 */
+	boolean run() {
+		IBoard board;
+		try {
+			board = new Board(fen);
+		} catch (BoardException e) {
+			System.out.println("Invalid fen: " + e.getMessage());
+			return false;
+		}
+
+		// Initialize the move generator before measuring
+		board.getStatus();
+
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		try {
+			Perft perft = new Perft(pool);
+
+			for (int d = 1; d < depth; d++) {
+				long start = System.nanoTime();
+				long nodes = perft.perft(board, d);
+				printDepth(d, nodes, System.nanoTime() - start);
+			}
+
+			// The deepest perft is the sum of the divide, so it is only run once
+			long start = System.nanoTime();
+			Map<Move, Long> divide = perft.divide(board, depth);
+			long nanos = System.nanoTime() - start;
+			long total = 0;
+			for (long nodes : divide.values()) {
+				total += nodes;
+			}
+			printDepth(depth, total, nanos);
+
+			System.out.println();
+			for (Map.Entry<Move, Long> entry : divide.entrySet()) {
+				System.out.println(entry.getKey() + ": " + entry.getValue());
+			}
+			System.out.println("total: " + total);
+		} finally {
+			pool.shutdown();
+		}
+
+		return true;
+	}
+
+	private static void printDepth(int depth, long nodes, long nanos) {
+		// Divide by the seconds, multiplying the nodes first would overflow
+		long nps = nanos > 0 ? (long) (nodes / (nanos / 1e9)) : 0;
+		System.out.printf("depth %d: %d nodes, %d ms, %d nps%n", depth, nodes, nanos / 1_000_000, nps);
+	}
+}
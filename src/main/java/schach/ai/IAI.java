@@ -14,5 +14,54 @@ public interface IAI {
 	 * @return the best move
 	 * @throws BoardException throws if there is no move possible (e.g. checkmate)
 	 */
-	Move getBestMove(IBoard board, int depth) throws BoardException;
+	default Move getBestMove(IBoard board, int depth) throws BoardException {
+		return getBestMove(board, SearchLimits.depth(depth));
+	}
+
+	/**
+	 * Search deeper and deeper until a limit is reached or the search is stopped
+	 * 
+	 * @param board  the board to find the move for
+	 * @param limits the limits of the search
+	 * @return the best move of the last completed depth
+	 * @throws BoardException throws if there is no move possible (e.g. checkmate)
+	 */
+	Move getBestMove(IBoard board, SearchLimits limits) throws BoardException;
+
+	/**
+	 * @return the result of the search that finished last
+	 */
+	SearchResult getLastResult();
+
+	/**
+	 * Set the amount of threads searching in parallel, used from the next search
+	 * on
+	 * 
+	 * @param threads the amount of threads, at least 1
+	 */
+	void setThreads(int threads);
+
+	/**
+	 * Stop the running search. Can be called from any thread, the search returns
+	 * its best move within a few milliseconds.
+	 */
+	void stop();
+
+	/**
+	 * Forget everything learned by earlier searches, e.g. when the game is taken
+	 * back. Until then every search starts from what the searches before found.
+	 */
+	void reset();
+
+	/**
+	 * The opponent played the expected reply of the running ponder search. It
+	 * goes on as a normal search, the time it already thought counts.
+	 */
+	void ponderHit();
+
+	/**
+	 * @return the reply of the opponent the last search expects after its best
+	 *         move, null if it does not expect one
+	 */
+	Move getPonderMove();
 }
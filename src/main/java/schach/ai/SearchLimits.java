@@ -0,0 +1,117 @@
+package schach.ai;
+
+/**
+ * SearchLimits tells the AI when to stop searching. The AI searches deeper and
+ * deeper until one of the limits is reached and returns the best move of the
+ * last completed depth. A limit of 0 means no limit; without any limit the
+ * search only ends when it is stopped.
+ *
+ * A ponder search thinks on the opponent's time about the position after the
+ * expected reply. It ignores the time limits until the opponent plays that
+ * reply and {@link IAI#ponderHit()} is called. The time counts from the start
+ * of the search, so it answers at once if it already thought long enough.
+ */
+public class SearchLimits {
+	private int depth;
+	private long moveTime;
+	private long clockTime;
+	private long increment;
+	private long nodes;
+	private boolean ponder;
+
+	/**
+	 * Creates limits that only stop at the given depth
+	 *
+	 * @param depth the maximum depth in plies
+	 * @return the limits
+	 */
+	public static SearchLimits depth(int depth) {
+		return new SearchLimits().setDepth(depth);
+	}
+
+	/**
+	 * Creates limits that only stop after the given time
+	 *
+	 * @param moveTime the time for the move in milliseconds
+	 * @return the limits
+	 */
+	public static SearchLimits moveTime(long moveTime) {
+		return new SearchLimits().setMoveTime(moveTime);
+	}
+
+	public int getDepth() {
+		return depth;
+	}
+
+	/**
+	 * @param depth the maximum depth in plies
+	 * @return these limits
+	 */
+	public SearchLimits setDepth(int depth) {
+		this.depth = depth;
+		return this;
+	}
+
+	public long getMoveTime() {
+		return moveTime;
+	}
+
+	/**
+	 * @param moveTime the time for the move in milliseconds, the search is
+	 *                 stopped when it is used up
+	 * @return these limits
+	 */
+	public SearchLimits setMoveTime(long moveTime) {
+		this.moveTime = moveTime;
+		return this;
+	}
+
+	public long getClockTime() {
+		return clockTime;
+	}
+
+	public long getIncrement() {
+		return increment;
+	}
+
+	/**
+	 * Let the AI divide the remaining time on its clock across the rest of the game
+	 *
+	 * @param clockTime the time left on the clock in milliseconds
+	 * @param increment the time added to the clock after every move in
+	 *                  milliseconds
+	 * @return these limits
+	 */
+	public SearchLimits setClock(long clockTime, long increment) {
+		this.clockTime = clockTime;
+		this.increment = increment;
+		return this;
+	}
+
+	public long getNodes() {
+		return nodes;
+	}
+
+	/**
+	 * @param nodes the maximum amount of positions to visit
+	 * @return these limits
+	 */
+	public SearchLimits setNodes(long nodes) {
+		this.nodes = nodes;
+		return this;
+	}
+
+	public boolean isPonder() {
+		return ponder;
+	}
+
+	/**
+	 * @param ponder whether the search thinks on the opponent's time and waits for
+	 *               {@link IAI#ponderHit()} before using its time
+	 * @return these limits
+	 */
+	public SearchLimits setPonder(boolean ponder) {
+		this.ponder = ponder;
+		return this;
+	}
+}
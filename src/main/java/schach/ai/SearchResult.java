@@ -0,0 +1,97 @@
+package schach.ai;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import schach.board.Move;
+
+/**
+ * SearchResult is the outcome of one search of the AI. It can not be changed,
+ * so it is handed to other threads without locks.
+ */
+public final class SearchResult {
+	private final Move bestMove;
+	private final int score;
+	private final int depth;
+	private final long nodes;
+	private final long time;
+	private final List<Move> principalVariation;
+	private final long expectedHash;
+
+	/**
+	 * Creates a new result
+	 *
+	 * @param bestMove           the best move
+	 * @param score              the score of the last completed depth
+	 * @param depth              the last completed depth
+	 * @param nodes              the amount of visited positions of all threads
+	 * @param time               the time the search took in milliseconds
+	 * @param principalVariation the expected line of play
+	 * @param expectedHash       the Zobrist hash of the position after the best
+	 *                           move and the expected reply, 0 if none
+	 */
+	public SearchResult(Move bestMove, int score, int depth, long nodes, long time, List<Move> principalVariation,
+			long expectedHash) {
+		this.bestMove = bestMove;
+		this.score = score;
+		this.depth = depth;
+		this.nodes = nodes;
+		this.time = time;
+		this.principalVariation = Collections.unmodifiableList(new ArrayList<Move>(principalVariation));
+		this.expectedHash = expectedHash;
+	}
+
+	/**
+	 * @return the best move, null before the first search
+	 */
+	public Move getBestMove() {
+		return bestMove;
+	}
+
+	/**
+	 * @return the score of the last completed depth, from the view of the side to
+	 *         move
+	 */
+	public int getScore() {
+		return score;
+	}
+
+	/**
+	 * @return the last completed depth, 0 if the search was stopped before the
+	 *         first one
+	 */
+	public int getDepth() {
+		return depth;
+	}
+
+	/**
+	 * @return the amount of positions visited by all threads
+	 */
+	public long getNodes() {
+		return nodes;
+	}
+
+	/**
+	 * @return the time the search took in milliseconds
+	 */
+	public long getTime() {
+		return time;
+	}
+
+	/**
+	 * @return the expected line of play of the last completed depth, starting
+	 *         with the best move
+	 */
+	public List<Move> getPrincipalVariation() {
+		return principalVariation;
+	}
+
+	/**
+	 * @return the Zobrist hash of the position after the best move and the
+	 *         expected reply, 0 if the principal variation is shorter
+	 */
+	public long getExpectedHash() {
+		return expectedHash;
+	}
+}
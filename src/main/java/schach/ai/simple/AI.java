@@ -2,118 +2,228 @@ package schach.ai.simple;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import schach.ai.IAI;
+import schach.ai.SearchLimits;
+import schach.ai.SearchResult;
 import schach.board.*;
 
 /**
- * Simple implementation of IAI
+ * Simple implementation of IAI. Every call searches in its own
+ * {@link SearchContext} with a parallel Lazy SMP search, so one AI can search
+ * several positions at the same time and AIs of different games do not wait
+ * for each other. The calls only share the transposition table and the helper
+ * threads.
  */
 public class AI implements IAI {
-	private Move bestMove;
-	private int bestValue;
-	private int alpha;
+	/**
+	 * Default size of the transposition table in MB
+	 */
+	public static final int defaultTableSizeMb = 16;
+
+	/**
+	 * Default amount of search threads, one per processor
+	 */
+	public static final int defaultThreads = Runtime.getRuntime().availableProcessors();
+
+	/**
+	 * The deepest search, used if the limits have no depth
+	 */
+	public static final int maxDepth = 64;
+
+	// The result before the first search
+	private static final SearchResult emptyResult = new SearchResult(null, 0, 0, 0, 0, new ArrayList<Move>(), 0);
+
+	// Seconds an idle helper thread is kept for the next search
+	private static final long helperKeepAlive = 60;
+
+	private final TranspositionTable table;
+	private volatile SearchSettings settings = new SearchSettings();
+	private volatile int threads;
+	// The helper threads live across searches, so a search does not start any.
+	// Searches at the same time get more threads instead of waiting.
+	private final ExecutorService helpers;
+	// Move orders of the threads of finished searches. They keep their history
+	// for the next search, but are never used by two searches at once.
+	private final Queue<MoveOrder[]> idleMoveOrders = new ConcurrentLinkedQueue<MoveOrder[]>();
+	private final Set<SearchContext> running = ConcurrentHashMap.newKeySet();
+	private volatile SearchResult lastResult = emptyResult;
+
+	/**
+	 * Creates a new AI with a transposition table of the default size
+	 */
+	public AI() {
+		this(defaultTableSizeMb);
+	}
 
-	@Override
-	public Move getBestMove(IBoard board, int depth) throws BoardException {
-		// Check if board has any moves
-		if (board.getValidMoves().isEmpty()) {
-			throw new BoardException("No valid Moves?!");
-		}
+	/**
+	 * Creates a new AI with the default amount of threads
+	 * 
+	 * @param tableSizeMb the size of the transposition table in MB
+	 */
+	public AI(int tableSizeMb) {
+		this(tableSizeMb, defaultThreads);
+	}
 
-		// Run min max threaded
-		minmaxThreaded(board, depth);
-
-		// Return best move
-		return this.bestMove;
-	}
-
-	private void minmaxThreaded(IBoard board, int depth) throws BoardException {
-		// Reset
-		bestMove = null;
-		bestValue = Integer.MIN_VALUE;
-		alpha = Integer.MIN_VALUE;
-		int beta = Integer.MAX_VALUE;
-
-		// Get valid moves
-		List<Move> validMoves = board.getValidMoves();
-
-		// Evaluate moves in groups of 3, to make use of multi cores AND
-		// alpha-beta-pruning
-		for (int moveOffset = 0; moveOffset < validMoves.size(); moveOffset += 3) {
-			// Start all evaluations in parallel
-			List<Thread> threads = new ArrayList<Thread>();
-			for (int i = moveOffset; i < validMoves.size() && i < moveOffset + 3; i++) {
-				Move move = validMoves.get(i);
-				Thread t = new Thread(() -> {
-					int value = 0;
-					try {
-						value = -minmax(board.move(move).board, depth - 1, false, alpha, beta);
-					} catch (BoardException e) {
-						e.printStackTrace();
-					}
-
-					synchronized (AI.class) {
-						if (value > bestValue) {
-							bestValue = value;
-							bestMove = move;
-						}
-
-						alpha = value > alpha ? value : alpha;
-					}
+	/**
+	 * Creates a new AI
+	 * 
+	 * @param tableSizeMb the size of the transposition table in MB
+	 * @param threads     the amount of threads searching in parallel
+	 */
+	public AI(int tableSizeMb, int threads) {
+		table = new TranspositionTable(tableSizeMb);
+		helpers = new ThreadPoolExecutor(0, Integer.MAX_VALUE, helperKeepAlive, TimeUnit.SECONDS,
+				new SynchronousQueue<Runnable>(), runnable -> {
+					Thread thread = new Thread(runnable, "AI helper");
+					thread.setDaemon(true);
+					return thread;
 				});
-				t.start();
-				threads.add(t);
-			}
+		setThreads(threads);
+	}
 
-			// Join all threads
-			for (Thread t : threads) {
-				try {
-					t.join();
-				} catch (InterruptedException e) {
-					e.printStackTrace();
-				}
-			}
-		}
+	/**
+	 * @return the transposition table, e.g. to read its statistics
+	 */
+	public TranspositionTable getTranspositionTable() {
+		return table;
 	}
 
-	// AvoidReassigningParameters: Reassigning alpha/beta is idiomatic
-	// ExcessiveParameterList: Extra class for (maximizingPlayer, alpha, beta) would
-	// just complicate copying and changing variables
-	@SuppressWarnings({ "PMD.AvoidReassigningParameters", "PMD.ExcessiveParameterList" })
-	private int minmax(IBoard board, int depth, boolean maximizingPlayer, int alpha, int beta) throws BoardException {
-		// Evaluate if depth is zero or the game is over
-		if (depth == 0 || board.getStatus().isOver()) {
-			int eval = Evaluation.evaluate(board);
-			if (board.getStatus() == BoardStatus.Checkmate) {
-				eval -= depth;
-			}
+	public SearchSettings getSettings() {
+		return settings;
+	}
 
-			return eval;
+	/**
+	 * Set how aggressively the search prunes and reduces, used from the next
+	 * search on
+	 * 
+	 * @param settings the settings
+	 */
+	public void setSettings(SearchSettings settings) {
+		this.settings = settings;
+	}
+
+	public int getThreads() {
+		return threads;
+	}
+
+	@Override
+	public void setThreads(int threads) {
+		if (threads < 1) {
+			throw new IllegalArgumentException("The search needs at least one thread");
 		}
 
-		// Get valid moves
-		List<Move> validMoves = board.getValidMoves();
-		int bestValue = Integer.MIN_VALUE;
+		this.threads = threads;
+		idleMoveOrders.clear();
+	}
+
+	@Override
+	public SearchResult getLastResult() {
+		return lastResult;
+	}
+
+	/**
+	 * @return the amount of positions visited by the last search
+	 */
+	public long getNodes() {
+		return lastResult.getNodes();
+	}
+
+	/**
+	 * @return the last depth the last search completed, 0 if it was stopped
+	 *         before the first one
+	 */
+	public int getCompletedDepth() {
+		return lastResult.getDepth();
+	}
 
-		// Evaluate all moves with minmax + alpha-beta-pruning
-		for (Move move : validMoves) {
-			int value = -minmax(board.move(move).board, depth - 1, !maximizingPlayer, alpha, beta);
+	/**
+	 * @return the score of the last completed depth of the last search, from the
+	 *         view of the side to move
+	 */
+	public int getScore() {
+		return lastResult.getScore();
+	}
 
-			bestValue = Math.max(bestValue, value);
+	/**
+	 * @return the expected line of play of the last completed depth of the last
+	 *         search, starting with the best move
+	 */
+	public List<Move> getPrincipalVariation() {
+		return lastResult.getPrincipalVariation();
+	}
 
-			if (maximizingPlayer) {
-				alpha = Math.max(alpha, value);
-				if (beta <= alpha)
-					break;
-			} else {
-				beta = Math.min(beta, -value);
-				if (beta <= alpha)
-					break;
+	@Override
+	public Move getBestMove(IBoard board, SearchLimits limits) throws BoardException {
+		int threads = this.threads;
+		MoveOrder[] moveOrders = idleMoveOrders.poll();
+		if (moveOrders == null || moveOrders.length != threads) {
+			moveOrders = new MoveOrder[threads];
+			for (int i = 0; i < threads; i++) {
+				moveOrders[i] = new MoveOrder();
 			}
 		}
 
-		// Return the best possible value for this board and the maximizing player
-		return bestValue;
+		table.newSearch();
+		SearchContext context = new SearchContext(board, limits, table, settings, moveOrders);
+		SearchResult last = lastResult;
+		if (last.getExpectedHash() != 0 && last.getExpectedHash() == board.getZobristHash()) {
+			List<Move> line = last.getPrincipalVariation();
+			context.continueLine(line.subList(2, line.size()), last.getScore());
+		}
+		running.add(context);
+		try {
+			SearchResult result = context.search(helpers);
+			lastResult = result;
+			return result.getBestMove();
+		} finally {
+			running.remove(context);
+			idleMoveOrders.offer(moveOrders);
+		}
+	}
+
+	/**
+	 * Stop all running searches of this AI
+	 */
+	@Override
+	public void stop() {
+		for (SearchContext context : running) {
+			context.stop();
+		}
+	}
+
+	/**
+	 * Forget the transposition table, the move order tables and the last result.
+	 * Must not be called while searching.
+	 */
+	@Override
+	public void reset() {
+		table.clear();
+		idleMoveOrders.clear();
+		lastResult = emptyResult;
+	}
+
+	/**
+	 * Let all running ponder searches of this AI use their time
+	 */
+	@Override
+	public void ponderHit() {
+		for (SearchContext context : running) {
+			context.ponderHit();
+		}
+	}
+
+	@Override
+	public Move getPonderMove() {
+		List<Move> line = lastResult.getPrincipalVariation();
+		return line.size() > 1 ? line.get(1) : null;
 	}
 }
@@ -6,6 +6,17 @@ import schach.board.*;
  * Evaluate the material of a given board
  */
 class MaterialEvaluation {
+	/**
+	 * The value of every piece type, indexed by its ordinal
+	 */
+	static final int[] pieceValues = new int[PieceType.values().length];
+
+	static {
+		for (PieceType type : PieceType.values()) {
+			pieceValues[type.ordinal()] = getValueOfPieceType(type);
+		}
+	}
+
 	private IBoard board;
 
 	private MaterialEvaluation(IBoard board) {
@@ -30,16 +41,18 @@ class MaterialEvaluation {
 	private int evaluatePieces(Color colorToEvaluate) {
 		int points = 0;
 
-		for (int rank = 0; rank < 8; rank++) {
-			for (int file = 0; file < 8; file++) {
-				points += getValueOfPieceType(board.pieceAt(new Position(file, rank), colorToEvaluate));
-			}
+		for (int square = 0; square < 64; square++) {
+			points += getValueOfPieceType(board.pieceAt(square, colorToEvaluate));
 		}
 
 		return points;
 	}
 
-	private int getValueOfPieceType(PieceType type) {
+	/**
+	 * @param type the piece type, may be null
+	 * @return the value of the piece type, 0 for none and the king
+	 */
+	static int getValueOfPieceType(PieceType type) {
 		if (type == null)
 			return 0;
 
@@ -0,0 +1,240 @@
+package schach.ai.simple;
+
+import java.util.Arrays;
+
+import schach.board.*;
+import schach.board.simple.SearchBoard;
+
+/**
+ * MoveOrder sorts the moves of a position so the best move is likely searched
+ * first, which makes alpha-beta-pruning cut off early. The order is:
+ *
+ * <ol>
+ * <li>the move of the transposition table</li>
+ * <li>captures and promotions that do not lose material, most valuable victim
+ * first, least valuable attacker first</li>
+ * <li>the two killer moves of the ply, quiet moves that caused a cutoff in a
+ * sibling position</li>
+ * <li>the counter move, the quiet move that refuted the opponent's last move
+ * before</li>
+ * <li>the other quiet moves by their history, how often they caused a
+ * cutoff</li>
+ * <li>captures that lose material by the static exchange evaluation</li>
+ * </ol>
+ *
+ * The tables are learned while searching, so every search thread has its own
+ * instance.
+ */
+class MoveOrder {
+	private static final int hashMoveScore = 1 << 30;
+	private static final int captureScore = 1 << 24;
+	private static final int killerScore = 1 << 23;
+	private static final int counterMoveScore = 1 << 22;
+	private static final int losingCaptureScore = -(1 << 20);
+
+	// History scores stay within +-maxHistory, below the counter move
+	private static final int maxHistory = 1 << 14;
+
+	private final int[][] killers = new int[Search.maxPly + 1][2];
+	private final int[][][] history = new int[2][64][64];
+	private final int[][] counterMoves = new int[64][64];
+
+	/**
+	 * Prepare the tables for the next search. Killers and counter moves belong to
+	 * the positions of the last search, the history is halved, so it still helps
+	 * but adapts quickly.
+	 */
+	void age() {
+		for (int[] plyKillers : killers) {
+			plyKillers[0] = 0;
+			plyKillers[1] = 0;
+		}
+		for (int[][] colorHistory : history) {
+			for (int[] fromHistory : colorHistory) {
+				for (int to = 0; to < 64; to++) {
+					fromHistory[to] /= 2;
+				}
+			}
+		}
+		for (int[] fromCounterMoves : counterMoves) {
+			Arrays.fill(fromCounterMoves, 0);
+		}
+	}
+
+	/**
+	 * Score the moves of a position for {@link #pickNext(int[], int[], int, int)}
+	 *
+	 * @param board    the board the moves are played on
+	 * @param moves    the packed moves
+	 * @param scores   the buffer for the scores, one per move
+	 * @param count    the amount of moves
+	 * @param hashMove the move of the transposition table, 0 if none
+	 * @param ply      the distance to the root
+	 */
+	void scoreMoves(SearchBoard board, int[] moves, int[] scores, int count, int hashMove, int ply) {
+		int color = board.getSideToMove().ordinal();
+		int counterMove = getCounterMove(board.getLastMove());
+		int[] plyKillers = killers[ply];
+
+		for (int i = 0; i < count; i++) {
+			int move = moves[i];
+			int score;
+
+			if (move == hashMove) {
+				score = hashMoveScore;
+			} else if (!isQuiet(move)) {
+				score = (isLosingCapture(board, move) ? losingCaptureScore : captureScore) + mvvLva(board, move);
+			} else if (move == plyKillers[0]) {
+				score = killerScore + 1;
+			} else if (move == plyKillers[1]) {
+				score = killerScore;
+			} else if (move == counterMove) {
+				score = counterMoveScore;
+			} else {
+				score = history[color][PackedMove.getFrom(move)][PackedMove.getTo(move)];
+			}
+
+			scores[i] = score;
+		}
+	}
+
+	/**
+	 * Score captures by most valuable victim, least valuable attacker, e.g. for
+	 * the quiescence search
+	 *
+	 * @param board  the board the moves are played on
+	 * @param moves  the packed moves
+	 * @param scores the buffer for the scores, one per move
+	 * @param count  the amount of moves
+	 */
+	void scoreCaptures(SearchBoard board, int[] moves, int[] scores, int count) {
+		for (int i = 0; i < count; i++) {
+			scores[i] = mvvLva(board, moves[i]);
+		}
+	}
+
+	/**
+	 * Learn from a quiet move that caused a beta cutoff. It becomes a killer of
+	 * the ply and the counter move of the opponent's last move, its history is
+	 * raised and the history of the quiet moves searched before it is lowered.
+	 *
+	 * @param board      the board the move was played on
+	 * @param move       the packed move that caused the cutoff
+	 * @param ply        the distance to the root
+	 * @param depth      the remaining depth, deeper cutoffs count more
+	 * @param quiets     the quiet moves searched before the move
+	 * @param quietCount the amount of quiet moves searched before the move
+	 */
+	void updateCutoff(SearchBoard board, int move, int ply, int depth, int[] quiets, int quietCount) {
+		int[] plyKillers = killers[ply];
+		if (plyKillers[0] != move) {
+			plyKillers[1] = plyKillers[0];
+			plyKillers[0] = move;
+		}
+
+		int lastMove = board.getLastMove();
+		if (lastMove != 0) {
+			counterMoves[PackedMove.getFrom(lastMove)][PackedMove.getTo(lastMove)] = move;
+		}
+
+		int[][] colorHistory = history[board.getSideToMove().ordinal()];
+		int bonus = Math.min(depth * depth, maxHistory);
+		updateHistory(colorHistory, move, bonus);
+		for (int i = 0; i < quietCount; i++) {
+			updateHistory(colorHistory, quiets[i], -bonus);
+		}
+	}
+
+	/**
+	 * @param move the packed move
+	 * @param ply  the distance to the root
+	 * @return whether the move is a killer move of the ply
+	 */
+	boolean isKiller(int move, int ply) {
+		return killers[ply][0] == move || killers[ply][1] == move;
+	}
+
+	/**
+	 * @param board the board the move is played on
+	 * @param move  the packed capture
+	 * @return whether the capture loses material by the static exchange
+	 *         evaluation
+	 */
+	static boolean isLosingCapture(SearchBoard board, int move) {
+		// Taking a piece at least as valuable as the capturing piece never loses
+		int attacker = MaterialEvaluation.getValueOfPieceType(board.pieceAt(PackedMove.getFrom(move)));
+		int victim = MaterialEvaluation.getValueOfPieceType(board.pieceAt(PackedMove.getTo(move)));
+		if (victim >= attacker) {
+			return false;
+		}
+
+		return board.staticExchange(move, MaterialEvaluation.pieceValues) < 0;
+	}
+
+	/**
+	 * @param move the packed move
+	 * @return whether the move neither captures nor promotes
+	 */
+	static boolean isQuiet(int move) {
+		return !PackedMove.isCapture(move) && PackedMove.getPromotion(move) == null;
+	}
+
+	/**
+	 * Moves the move with the highest score of the remaining moves to the given
+	 * index. Picking one move at a time is cheaper than sorting, since most nodes
+	 * are cut off after a few moves.
+	 *
+	 * @param moves  the packed moves
+	 * @param scores the scores of the moves
+	 * @param index  the index of the next move to search
+	 * @param count  the amount of moves
+	 * @return the next move to search
+	 */
+	static int pickNext(int[] moves, int[] scores, int index, int count) {
+		int best = index;
+		for (int i = index + 1; i < count; i++) {
+			if (scores[i] > scores[best]) {
+				best = i;
+			}
+		}
+
+		int move = moves[best];
+		moves[best] = moves[index];
+		moves[index] = move;
+		int score = scores[best];
+		scores[best] = scores[index];
+		scores[index] = score;
+
+		return move;
+	}
+
+	private int getCounterMove(int lastMove) {
+		return lastMove != 0 ? counterMoves[PackedMove.getFrom(lastMove)][PackedMove.getTo(lastMove)] : 0;
+	}
+
+	/**
+	 * The history moves towards the bound by the bonus, the closer it is the less,
+	 * so it never leaves the bounds
+	 */
+	private static void updateHistory(int[][] colorHistory, int move, int bonus) {
+		int from = PackedMove.getFrom(move);
+		int to = PackedMove.getTo(move);
+		colorHistory[from][to] += bonus - colorHistory[from][to] * Math.abs(bonus) / maxHistory;
+	}
+
+	/**
+	 * Most valuable victim, least valuable attacker: winning a queen with a pawn
+	 * is tried before winning a pawn with a queen
+	 */
+	private static int mvvLva(SearchBoard board, int move) {
+		int victim = PackedMove.isEnPassant(move) ? MaterialEvaluation.getValueOfPieceType(PieceType.Pawn)
+				: MaterialEvaluation.getValueOfPieceType(board.pieceAt(PackedMove.getTo(move)));
+		int attacker = MaterialEvaluation.getValueOfPieceType(board.pieceAt(PackedMove.getFrom(move)));
+		PieceType promotion = PackedMove.getPromotion(move);
+		if (promotion != null) {
+			victim += MaterialEvaluation.getValueOfPieceType(promotion);
+		}
+
+		return victim - attacker / 10;
+	}
+}
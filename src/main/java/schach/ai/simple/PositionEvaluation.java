@@ -34,11 +34,9 @@ class PositionEvaluation {
 
 		// Calculate total pieces
 		int totalPieces = 0;
-		for (int rank = 0; rank < 8; rank++) {
-			for (int file = 0; file < 8; file++) {
-				if (board.pieceAt(new Position(file, rank)) != null) {
-					totalPieces++;
-				}
+		for (int square = 0; square < 64; square++) {
+			if (board.pieceAt(square) != null) {
+				totalPieces++;
 			}
 		}
 
@@ -79,9 +77,8 @@ class PositionEvaluation {
 
 		for (int rank = rankFrom; rank <= rankTo; rank++) {
 			for (int file = 0; file < 8; file++) {
-				if (board.pieceAt(new Position(file, rank), colorToEvaluate) == PieceType.Knight
-						|| board.pieceAt(new Position(file, rank), colorToEvaluate) == PieceType.Bishop
-						|| board.pieceAt(new Position(file, rank), colorToEvaluate) == PieceType.Rook) {
+				PieceType piece = board.pieceAt(file + rank * 8, colorToEvaluate);
+				if (piece == PieceType.Knight || piece == PieceType.Bishop || piece == PieceType.Rook) {
 					points += 50;
 				}
 			}
@@ -95,7 +92,7 @@ class PositionEvaluation {
 
 		for (int rank = 0; rank < 8; rank++) {
 			for (int file = 0; file < 8; file++) {
-				if (board.pieceAt(new Position(file, rank), colorToEvaluate) == PieceType.Pawn) {
+				if (board.pieceAt(file + rank * 8, colorToEvaluate) == PieceType.Pawn) {
 					if (colorToEvaluate == Color.White) {
 						points += 5 * rank;
 					} else {
@@ -113,7 +110,7 @@ class PositionEvaluation {
 
 		for (int rank = 0; rank < 8; rank++) {
 			for (int file = 0; file < 8; file++) {
-				if (isPassedPawnAt(colorToEvaluate, new Position(file, rank))) {
+				if (isPassedPawnAt(colorToEvaluate, file, rank)) {
 					points += 20;
 				}
 			}
@@ -122,17 +119,17 @@ class PositionEvaluation {
 		return points;
 	}
 
-	private boolean isPassedPawnAt(Color colorToEvaluate, Position position) {
+	private boolean isPassedPawnAt(Color colorToEvaluate, int file, int rank) {
 		int pawnRankDir = colorToEvaluate == Color.White ? 1 : -1;
 
-		if (board.pieceAt(position, colorToEvaluate) != PieceType.Pawn) {
+		if (board.pieceAt(file + rank * 8, colorToEvaluate) != PieceType.Pawn) {
 			return false;
 		}
 
-		for (int r = position.getRank() + pawnRankDir; r < 8 && r >= 0; r += pawnRankDir) {
-			for (int f = position.getFile() - 1; f <= position.getFile() + 1; f++) {
+		for (int r = rank + pawnRankDir; r < 8 && r >= 0; r += pawnRankDir) {
+			for (int f = file - 1; f <= file + 1; f++) {
 				if (Position.isValid(f, r)
-						&& board.pieceAt(new Position(f, r), colorToEvaluate.getInverted()) == PieceType.Pawn) {
+						&& board.pieceAt(f + r * 8, colorToEvaluate.getInverted()) == PieceType.Pawn) {
 					return false;
 				}
 			}
@@ -147,14 +144,14 @@ class PositionEvaluation {
 
 		for (int rank = 0; rank < 8; rank++) {
 			for (int file = 0; file < 8; file++) {
-				if (board.pieceAt(new Position(file, rank), colorToEvaluate) == PieceType.Pawn) {
-					if (Position.isValid(file - 1, rank + pawnRankDir) && board
-							.pieceAt(new Position(file - 1, rank + pawnRankDir), colorToEvaluate) == PieceType.Pawn) {
+				if (board.pieceAt(file + rank * 8, colorToEvaluate) == PieceType.Pawn) {
+					if (Position.isValid(file - 1, rank + pawnRankDir)
+							&& board.pieceAt(file - 1 + (rank + pawnRankDir) * 8, colorToEvaluate) == PieceType.Pawn) {
 						points += 15;
 
 					}
-					if (Position.isValid(file + 1, rank + pawnRankDir) && board
-							.pieceAt(new Position(file + 1, rank + pawnRankDir), colorToEvaluate) == PieceType.Pawn) {
+					if (Position.isValid(file + 1, rank + pawnRankDir)
+							&& board.pieceAt(file + 1 + (rank + pawnRankDir) * 8, colorToEvaluate) == PieceType.Pawn) {
 						points += 15;
 					}
 				}
@@ -170,7 +167,7 @@ class PositionEvaluation {
 		int pawnRankDir = colorToEvaluate == Color.White ? 1 : -1;
 
 		// Find my king
-		Position myKingPosition = kingPosition(colorToEvaluate);
+		Position myKingPosition = board.getKingPosition(colorToEvaluate);
 
 		// Castling rights
 		CastleRights castleRights = board.getCastleRights(colorToEvaluate);
@@ -185,23 +182,11 @@ class PositionEvaluation {
 			int file = myKingPosition.getFile() + fileDelta;
 			int rank = myKingPosition.getRank() + pawnRankDir;
 
-			if (Position.isValid(file, rank) && board.pieceAt(new Position(file, rank), colorToEvaluate) != null) {
+			if (Position.isValid(file, rank) && board.pieceAt(file + rank * 8, colorToEvaluate) != null) {
 				points += 40;
 			}
 		}
 
 		return points;
 	}
-
-	private Position kingPosition(Color color) {
-		for (int rank = 0; rank < 8; rank++) {
-			for (int file = 0; file < 8; file++) {
-				if (board.pieceAt(new Position(file, rank), color) == PieceType.King) {
-					return new Position(file, rank);
-				}
-			}
-		}
-
-		return null;
-	}
 }
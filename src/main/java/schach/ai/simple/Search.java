@@ -0,0 +1,487 @@
+package schach.ai.simple;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import schach.board.*;
+import schach.board.simple.SearchBoard;
+
+/**
+ * Search walks the game tree for one thread of the AI. It plays the moves on
+ * its own search board and keeps a move buffer per ply, so no objects are
+ * created while searching.
+ */
+class Search {
+	/**
+	 * Bigger than any score, used as initial window
+	 */
+	static final int infinity = 10_000_000;
+
+	/**
+	 * Scores beyond this are mate scores
+	 */
+	static final int mateThreshold = 900_000;
+
+	/**
+	 * The deepest ply the search can reach, including the quiescence search
+	 */
+	static final int maxPly = 128;
+
+	// A capture has to be able to win this much above its piece value to be
+	// searched in the quiescence search, for positional gains
+	private static final int deltaMargin = 200;
+
+	// The least depth for null move pruning
+	private static final int nullMoveDepth = 3;
+	// The most depth for futility pruning and razoring
+	private static final int frontierDepth = 3;
+
+	private SearchBoard board;
+	private TranspositionTable table;
+	private SearchControl control;
+	private MoveOrder order;
+	private SearchSettings settings;
+	private int[][] moveBuffers;
+	private int[][] scoreBuffers;
+	private int[][] quietBuffers;
+	// Triangular table of the principal variation, the line of best moves, per ply
+	private int[][] pvTable;
+	private int[] pvLength;
+	// Extensions on the line from the root to a ply
+	private int[] pathExtensions;
+	private int nodes;
+
+	/**
+	 * Create a new search
+	 * 
+	 * @param board    the board to start the search from
+	 * @param table    the transposition table shared by all searches
+	 * @param control  the control shared by all searches of the same move
+	 * @param order    the move order of the thread running the search
+	 * @param settings the pruning and reduction settings
+	 */
+	Search(IBoard board, TranspositionTable table, SearchControl control, MoveOrder order,
+			SearchSettings settings) {
+		this.board = new SearchBoard(board);
+		this.table = table;
+		this.control = control;
+		this.order = order;
+		this.settings = settings;
+		// The buffers are created when a ply is reached the first time
+		this.moveBuffers = new int[maxPly + 1][];
+		this.scoreBuffers = new int[maxPly + 1][];
+		this.quietBuffers = new int[maxPly + 1][];
+		this.pvTable = new int[maxPly + 1][];
+		this.pvLength = new int[maxPly + 1];
+		this.pathExtensions = new int[maxPly + 1];
+	}
+
+	/**
+	 * @return the search board which is used to walk the tree
+	 */
+	SearchBoard getBoard() {
+		return board;
+	}
+
+	/**
+	 * @param ply the ply the line starts at
+	 * @return the principal variation of the last search from the given ply. Only
+	 *         complete if the score of the search was inside its window.
+	 */
+	List<Move> getPrincipalVariation(int ply) {
+		List<Move> moves = new ArrayList<Move>(pvLength[ply]);
+		for (int i = 0; i < pvLength[ply]; i++) {
+			moves.add(PackedMove.toMove(pvTable[ply][i]));
+		}
+
+		return moves;
+	}
+
+	/**
+	 * Principal variation search of a child with the score of the first child as
+	 * alpha. It is expected to be worse, so a search with a null window, which
+	 * prunes a lot more, is enough to prove it. Only if it turns out better it is
+	 * searched again with the full window.
+	 * 
+	 * @param depth the remaining depth of the child
+	 * @param ply   the distance of the child to the root
+	 * @param alpha the score the side to move has already secured
+	 * @param beta  the score the opponent has already secured
+	 * @return the score of the child from the view of the side to move before it
+	 * @throws BoardException if a move can not be played
+	 */
+	int searchNonPv(int depth, int ply, int alpha, int beta) throws BoardException {
+		int value = -negamax(depth, ply, -alpha - 1, -alpha);
+		if (value > alpha && value < beta && !control.isStopped()) {
+			value = -negamax(depth, ply, -beta, -alpha);
+		}
+
+		return value;
+	}
+
+	/**
+	 * Report the positions visited since the last report to the control
+	 */
+	void flushNodes() {
+		control.addNodes(nodes);
+		nodes = 0;
+	}
+
+	/**
+	 * Negamax principal variation search. Scores are from the view of the side to
+	 * move. Nodes with a window wider than one are on the principal variation,
+	 * their first move is searched with the full window and the others with
+	 * {@link #searchNonPv(int, int, int, int)}. When the search is stopped, it
+	 * returns 0 at once and the result has to be discarded.
+	 * 
+	 * @param depth the remaining depth
+	 * @param ply   the distance to the root
+	 * @param alpha the score the side to move has already secured
+	 * @param beta  the score the opponent has already secured
+	 * @return the score of the position
+	 * @throws BoardException if a move can not be played
+	 */
+	// AvoidReassigningParameters: Reassigning alpha/beta is idiomatic
+	@SuppressWarnings("PMD.AvoidReassigningParameters")
+	int negamax(int depth, int ply, int alpha, int beta) throws BoardException {
+		if (++nodes == SearchControl.checkInterval) {
+			flushNodes();
+		}
+		if (control.isStopped()) {
+			return 0;
+		}
+
+		pvLength[ply] = 0;
+		if (depth == 0 || ply >= maxPly) {
+			return quiescence(ply, alpha, beta);
+		}
+
+		boolean pvNode = beta - alpha > 1;
+
+		// Use the result of an earlier search of this position, but keep the
+		// principal variation complete
+		long hash = board.getZobristHash();
+		long entry = table.probe(hash);
+		int hashMove = 0;
+		if (entry != 0) {
+			hashMove = TranspositionTable.getMove(entry);
+
+			if (!pvNode && TranspositionTable.getDepth(entry) >= depth) {
+				int score = TranspositionTable.getScore(entry, ply);
+				int bound = TranspositionTable.getBound(entry);
+				if (bound == TranspositionTable.exactBound
+						|| bound == TranspositionTable.lowerBound && score >= beta
+						|| bound == TranspositionTable.upperBound && score <= alpha) {
+					return score;
+				}
+			}
+		}
+
+		if (board.getStatus().isOver()) {
+			return evaluate(ply);
+		}
+
+		// Pruning by the static evaluation is only safe outside of the principal
+		// variation and check, and with bounds that are no mate scores
+		boolean inCheck = board.isInCheck();
+		boolean canPrune = !pvNode && !inCheck && Math.abs(alpha) < mateThreshold && Math.abs(beta) < mateThreshold;
+		int staticEval = canPrune ? evaluate(ply) : -infinity;
+
+		// Reverse futility pruning: far enough above beta that the opponent will not
+		// catch up near the horizon
+		int reverseFutilityMargin = settings.getReverseFutilityMargin() * depth;
+		if (canPrune && depth <= frontierDepth && reverseFutilityMargin > 0
+				&& staticEval - reverseFutilityMargin >= beta) {
+			return staticEval;
+		}
+
+		// Razoring: so far below alpha that only captures can help
+		int razorMargin = settings.getRazorMargin() * depth;
+		if (canPrune && depth <= frontierDepth && razorMargin > 0 && staticEval + razorMargin < alpha) {
+			int value = quiescence(ply, alpha, beta);
+			if (value <= alpha || control.isStopped()) {
+				return value;
+			}
+		}
+
+		// Null move pruning: if the opponent can not even punish passing the turn
+		// with a reduced search, a real move will fail high as well. Passing is not
+		// allowed in check, twice in a row would only waste time, and without
+		// pieces zugzwang makes passing better than any move.
+		if (canPrune && depth >= nullMoveDepth && board.getLastMove() != 0
+				&& board.hasNonPawnMaterial(board.getSideToMove()) && staticEval >= beta) {
+			int reduction = 2 + depth / 4;
+			board.makeNullMove();
+			int value = -negamax(Math.max(depth - 1 - reduction, 0), ply + 1, -beta, -beta + 1);
+			board.unmakeMove();
+
+			if (control.isStopped()) {
+				return 0;
+			}
+			if (value >= beta) {
+				// A mate after passing is not proven
+				return value >= mateThreshold ? beta : value;
+			}
+		}
+
+		// Get valid moves, the likely best first
+		int[] validMoves = buffer(moveBuffers, ply);
+		int[] scores = buffer(scoreBuffers, ply);
+		int[] quiets = buffer(quietBuffers, ply);
+		int count = board.getValidMoves(validMoves);
+		order.scoreMoves(board, validMoves, scores, count, hashMove, ply);
+
+		// Futility pruning: near the horizon quiet moves can not gain enough to
+		// reach alpha
+		int futilityMargin = settings.getFutilityMargin() * depth;
+		boolean futile = canPrune && depth <= frontierDepth && futilityMargin > 0
+				&& staticEval + futilityMargin <= alpha;
+		// Quiet moves that hang material by the static exchange evaluation
+		int seeMargin = settings.getSeeMargin() * depth;
+		boolean pruneHanging = canPrune && depth <= frontierDepth && seeMargin > 0;
+
+		int originalAlpha = alpha;
+		int bestValue = -infinity;
+		int bestMove = 0;
+		int quietCount = 0;
+		int lastMove = board.getLastMove();
+		boolean canExtend = pathExtensions[ply] < settings.getExtensionBudget();
+
+		// Evaluate all moves with negamax + alpha-beta-pruning
+		for (int i = 0; i < count; i++) {
+			int move = MoveOrder.pickNext(validMoves, scores, i, count);
+
+			// Extensions: forcing moves are searched one ply deeper, so their
+			// consequences are not cut off by the horizon
+			boolean forcing = count == 1 || isRecapture(move, lastMove) || isSeventhRankPush(move);
+			boolean prunable = i > 0 && MoveOrder.isQuiet(move) && (futile
+					|| pruneHanging && board.staticExchange(move, MaterialEvaluation.pieceValues) < -seeMargin);
+			board.makeMove(move);
+			boolean givesCheck = board.isInCheck();
+			int extension = canExtend && (forcing || givesCheck) ? 1 : 0;
+			pathExtensions[ply + 1] = pathExtensions[ply] + extension;
+
+			if (prunable && extension == 0 && !givesCheck) {
+				board.unmakeMove();
+				continue;
+			}
+
+			int newDepth = depth - 1 + extension;
+			int value;
+			if (i == 0) {
+				value = -negamax(newDepth, ply + 1, -beta, -alpha);
+			} else {
+				// Late move reductions: quiet moves ordered late are unlikely to be
+				// good, so they are searched with less depth first. Tactical moves,
+				// killers and moves in or into check are exempt.
+				int reduction = 0;
+				if (!inCheck && MoveOrder.isQuiet(move) && !order.isKiller(move, ply) && !givesCheck
+						&& extension == 0) {
+					reduction = settings.getReduction(depth, i) - (pvNode ? 1 : 0);
+					reduction = Math.max(0, Math.min(reduction, depth - 2));
+				}
+
+				if (reduction > 0) {
+					// Only a move that beats alpha nevertheless gets the full depth
+					value = -negamax(newDepth - reduction, ply + 1, -alpha - 1, -alpha);
+					if (value > alpha && !control.isStopped()) {
+						value = searchNonPv(newDepth, ply + 1, alpha, beta);
+					}
+				} else {
+					value = searchNonPv(newDepth, ply + 1, alpha, beta);
+				}
+			}
+			board.unmakeMove();
+
+			// The score of an aborted search is not known
+			if (control.isStopped()) {
+				return 0;
+			}
+
+			if (value > bestValue) {
+				bestValue = value;
+				bestMove = move;
+			}
+
+			if (value > alpha && pvNode) {
+				updatePv(ply, move);
+			}
+
+			alpha = Math.max(alpha, value);
+			if (alpha >= beta) {
+				if (MoveOrder.isQuiet(move)) {
+					order.updateCutoff(board, move, ply, depth, quiets, quietCount);
+				}
+				break;
+			}
+
+			if (MoveOrder.isQuiet(move)) {
+				quiets[quietCount++] = move;
+			}
+		}
+
+		int bound;
+		if (bestValue <= originalAlpha) {
+			bound = TranspositionTable.upperBound;
+		} else if (bestValue >= beta) {
+			bound = TranspositionTable.lowerBound;
+		} else {
+			bound = TranspositionTable.exactBound;
+		}
+		table.store(hash, depth, bound, bestValue, ply, bestMove);
+
+		// Return the best possible value for the side to move
+		return bestValue;
+	}
+
+	/**
+	 * Quiescence search, which only plays captures and promotions until the
+	 * position is quiet, so it is not evaluated in the middle of an exchange. The
+	 * side to move can stand pat, i.e. take the static evaluation instead of
+	 * capturing. In check all evasions are searched, so mates are found.
+	 * 
+	 * @param ply   the distance to the root
+	 * @param alpha the score the side to move has already secured
+	 * @param beta  the score the opponent has already secured
+	 * @return the score of the position
+	 * @throws BoardException if a move can not be played
+	 */
+	// AvoidReassigningParameters: Reassigning alpha/beta is idiomatic
+	@SuppressWarnings("PMD.AvoidReassigningParameters")
+	int quiescence(int ply, int alpha, int beta) throws BoardException {
+		if (++nodes == SearchControl.checkInterval) {
+			flushNodes();
+		}
+		if (control.isStopped()) {
+			return 0;
+		}
+
+		pvLength[ply] = 0;
+		if (board.getStatus().isOver() || ply >= maxPly) {
+			return evaluate(ply);
+		}
+
+		boolean inCheck = board.isInCheck();
+		int standPat = -infinity;
+		int bestValue = -infinity;
+		int[] moves = buffer(moveBuffers, ply);
+		int count;
+
+		if (inCheck) {
+			count = board.getValidMoves(moves);
+		} else {
+			standPat = evaluate(ply);
+			if (standPat >= beta) {
+				return standPat;
+			}
+
+			alpha = Math.max(alpha, standPat);
+			bestValue = standPat;
+			count = board.getCaptureMoves(moves);
+		}
+
+		int[] scores = buffer(scoreBuffers, ply);
+		order.scoreCaptures(board, moves, scores, count);
+
+		for (int i = 0; i < count; i++) {
+			int move = MoveOrder.pickNext(moves, scores, i, count);
+
+			if (!inCheck) {
+				PieceType promotion = PackedMove.getPromotion(move);
+				if (promotion != null && promotion != PieceType.Queen) {
+					// Underpromotions hardly ever win material
+					continue;
+				}
+
+				// Delta pruning: skip captures that can not raise alpha even with a
+				// margin for positional gains
+				int gain = PackedMove.isEnPassant(move) ? MaterialEvaluation.getValueOfPieceType(PieceType.Pawn)
+						: MaterialEvaluation.getValueOfPieceType(board.pieceAt(PackedMove.getTo(move)));
+				if (promotion != null) {
+					gain += MaterialEvaluation.getValueOfPieceType(PieceType.Queen)
+							- MaterialEvaluation.getValueOfPieceType(PieceType.Pawn);
+				}
+				if (standPat + gain + deltaMargin <= alpha) {
+					continue;
+				}
+
+				// Captures that lose material can only be worse than standing pat
+				if (MoveOrder.isLosingCapture(board, move)) {
+					continue;
+				}
+			}
+
+			board.makeMove(move);
+			int value = -quiescence(ply + 1, -beta, -alpha);
+			board.unmakeMove();
+
+			if (control.isStopped()) {
+				return 0;
+			}
+
+			bestValue = Math.max(bestValue, value);
+			alpha = Math.max(alpha, value);
+			if (alpha >= beta) {
+				break;
+			}
+		}
+
+		return bestValue;
+	}
+
+	/**
+	 * @return whether the move captures the piece that just captured
+	 */
+	private static boolean isRecapture(int move, int lastMove) {
+		return PackedMove.isCapture(move) && PackedMove.isCapture(lastMove)
+				&& PackedMove.getTo(move) == PackedMove.getTo(lastMove);
+	}
+
+	/**
+	 * @return whether the move pushes a pawn of the side to move to the rank
+	 *         before promotion
+	 */
+	private boolean isSeventhRankPush(int move) {
+		int rank = PackedMove.getTo(move) / 8;
+		boolean seventh = board.getSideToMove() == Color.White ? rank == 6 : rank == 1;
+		return seventh && board.pieceAt(PackedMove.getFrom(move)) == PieceType.Pawn;
+	}
+
+	/**
+	 * The line of the ply is the move followed by the line of the next ply
+	 */
+	private void updatePv(int ply, int move) {
+		if (pvTable[ply] == null) {
+			pvTable[ply] = new int[maxPly + 1];
+		}
+
+		int childLength = pvLength[ply + 1];
+		pvTable[ply][0] = move;
+		if (childLength > 0) {
+			System.arraycopy(pvTable[ply + 1], 0, pvTable[ply], 1, childLength);
+		}
+		pvLength[ply] = childLength + 1;
+	}
+
+	private int evaluate(int ply) {
+		int eval = Evaluation.evaluate(board);
+		if (board.getStatus() == BoardStatus.Checkmate) {
+			// Prefer faster mates
+			eval += ply;
+		}
+
+		return eval;
+	}
+
+	/**
+	 * @return the buffer of the ply, created when the ply is reached the first
+	 *         time
+	 */
+	private static int[] buffer(int[][] buffers, int ply) {
+		if (buffers[ply] == null) {
+			buffers[ply] = new int[PackedMove.maxMoves];
+		}
+
+		return buffers[ply];
+	}
+}
@@ -0,0 +1,318 @@
+package schach.ai.simple;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import schach.ai.SearchLimits;
+import schach.ai.SearchResult;
+import schach.board.*;
+import schach.board.simple.SearchBoard;
+
+/**
+ * SearchContext holds everything one call of the AI works with: the control of
+ * its limits, the move orders of its threads, their searches with their own
+ * stacks and the best move found so far. Calls only share the transposition
+ * table, so one AI can search several positions at the same time.
+ *
+ * The search runs in parallel with Lazy SMP: the calling thread searches the
+ * root with iterative deepening, while helper threads search the same position
+ * without a window and only fill the shared transposition table. Each thread
+ * has its own move order and half of the helpers start one depth ahead, so the
+ * threads spread over the tree instead of searching the same positions.
+ */
+class SearchContext {
+	// Half the width of the first aspiration window, and beyond which the
+	// window is opened completely
+	private static final int aspirationWindow = 50;
+	private static final int maxAspirationWindow = 800;
+	// Depth from which the score of the previous depth is stable enough
+	private static final int aspirationDepth = 4;
+
+	private final IBoard board;
+	private final TranspositionTable table;
+	private final SearchSettings settings;
+	// One move order per thread, the first one belongs to the calling thread
+	private final MoveOrder[] moveOrders;
+	private final SearchControl control;
+	private final int depthLimit;
+
+	// The first root move and the score expected by the last search
+	private Move expectedMove;
+	private boolean hasExpectedScore;
+
+	// Written by the calling thread only, moves are packed moves
+	private int bestMove;
+	private int bestValue;
+	private List<Move> bestLine;
+	private int completedDepth;
+	private int score;
+	private List<Move> principalVariation = new ArrayList<Move>();
+
+	/**
+	 * Prepare a search
+	 *
+	 * @param board      the board to find the move for
+	 * @param limits     the limits of the search
+	 * @param table      the transposition table of the AI
+	 * @param settings   the pruning and reduction settings
+	 * @param moveOrders the move orders of the threads, not used by any other
+	 *                   search at the same time
+	 */
+	SearchContext(IBoard board, SearchLimits limits, TranspositionTable table, SearchSettings settings,
+			MoveOrder[] moveOrders) {
+		this.board = board;
+		this.table = table;
+		this.settings = settings;
+		this.moveOrders = moveOrders;
+		this.control = new SearchControl(limits);
+		this.depthLimit = limits.getDepth() > 0 ? Math.min(limits.getDepth(), AI.maxDepth) : AI.maxDepth;
+	}
+
+	/**
+	 * Go on with the line the last search expected, because the opponent played
+	 * the expected reply. Its next move is searched first and its score centers
+	 * the aspiration windows from the first depth on.
+	 *
+	 * @param line  the rest of the principal variation of the last search
+	 * @param score the score of the last search
+	 */
+	void continueLine(List<Move> line, int score) {
+		if (!line.isEmpty()) {
+			expectedMove = line.get(0);
+		}
+		this.score = score;
+		hasExpectedScore = true;
+	}
+
+	/**
+	 * Stop the search, can be called from any thread
+	 */
+	void stop() {
+		control.stop();
+	}
+
+	/**
+	 * The expected reply was played, a ponder search starts to use its time. Can
+	 * be called from any thread.
+	 */
+	void ponderHit() {
+		control.ponderHit();
+	}
+
+	/**
+	 * Search deeper and deeper until a limit is reached or the search is stopped
+	 *
+	 * @param helpers the executor running the helper threads
+	 * @return the result of the last completed depth
+	 * @throws BoardException if there is no valid move
+	 */
+	SearchResult search(ExecutorService helpers) throws BoardException {
+		for (MoveOrder order : moveOrders) {
+			order.age();
+		}
+
+		// The root moves are packed moves with their flags, e.g. for the recapture
+		// extension after a root capture
+		Search search = new Search(board, table, control, moveOrders[0], settings);
+		int[] rootMoves = new int[PackedMove.maxMoves];
+		int rootCount = search.getBoard().getValidMoves(rootMoves);
+		if (rootCount == 0) {
+			throw new BoardException("No valid Moves?!");
+		}
+
+		// Start with the expected move, else with the move of the transposition table
+		Move first = expectedMove != null ? expectedMove : getHashMove();
+		for (int i = 0; i < rootCount && first != null; i++) {
+			if (PackedMove.toMove(rootMoves[i]).equals(first)) {
+				moveToFront(rootMoves, i);
+				break;
+			}
+		}
+
+		int result = rootMoves[0];
+		if (rootCount == 1) {
+			return createResult(result);
+		}
+
+		List<Future<?>> helperSearches = new ArrayList<Future<?>>();
+		for (int i = 1; i < moveOrders.length; i++) {
+			int id = i;
+			helperSearches.add(helpers.submit(() -> searchHelper(id)));
+		}
+
+		try {
+			// Iterative deepening: every depth fills the transposition table for the
+			// next one, so the result can be returned whenever the search is stopped
+			for (int depth = 1; depth <= depthLimit; depth++) {
+				searchAspiration(search, depth, rootMoves, rootCount);
+
+				if (control.isStopped()) {
+					// Better than nothing if not even the first depth completed
+					if (completedDepth == 0 && bestMove != 0) {
+						result = bestMove;
+					}
+					break;
+				}
+
+				result = bestMove;
+				completedDepth = depth;
+				score = bestValue;
+				principalVariation = bestLine;
+
+				// Search the best move first in the next depth
+				for (int i = 0; i < rootCount; i++) {
+					if (rootMoves[i] == result) {
+						moveToFront(rootMoves, i);
+						break;
+					}
+				}
+
+				if (!control.canStartDepth()) {
+					break;
+				}
+			}
+		} finally {
+			// The helpers only end when they are stopped
+			control.stop();
+			for (Future<?> helperSearch : helperSearches) {
+				try {
+					helperSearch.get();
+				} catch (InterruptedException | ExecutionException e) {
+					e.printStackTrace();
+				}
+			}
+		}
+
+		return createResult(result);
+	}
+
+	private SearchResult createResult(int move) {
+		long expectedHash = 0;
+		if (principalVariation.size() >= 2) {
+			try {
+				expectedHash = board.move(principalVariation.get(0)).board.move(principalVariation.get(1)).board
+						.getZobristHash();
+			} catch (BoardException e) {
+				e.printStackTrace();
+			}
+		}
+
+		return new SearchResult(PackedMove.toMove(move), score, completedDepth, control.getNodes(), control.getElapsed(),
+				principalVariation, expectedHash);
+	}
+
+	/**
+	 * Moves the move at the index to the front, the moves before it move back by
+	 * one
+	 */
+	private static void moveToFront(int[] moves, int index) {
+		int move = moves[index];
+		System.arraycopy(moves, 0, moves, 1, index);
+		moves[0] = move;
+	}
+
+	private Move getHashMove() {
+		long entry = table.probe(board.getZobristHash());
+		int move = TranspositionTable.getMove(entry);
+		return move != 0 ? PackedMove.toMove(move) : null;
+	}
+
+	/**
+	 * Search a depth with a narrow window around the score of the previous depth,
+	 * which prunes more. If the score is outside of the window, the window is
+	 * widened and the depth searched again.
+	 */
+	private void searchAspiration(Search search, int depth, int[] rootMoves, int rootCount)
+			throws BoardException {
+		int delta = aspirationWindow;
+		int windowAlpha = -Search.infinity;
+		int windowBeta = Search.infinity;
+		if (depth >= aspirationDepth || hasExpectedScore) {
+			windowAlpha = score - delta;
+			windowBeta = score + delta;
+		}
+
+		while (true) {
+			searchRoot(search, depth, rootMoves, rootCount, windowAlpha, windowBeta);
+			if (control.isStopped()) {
+				return;
+			}
+
+			delta *= 2;
+			if (bestValue <= windowAlpha) {
+				windowAlpha = delta > maxAspirationWindow ? -Search.infinity : windowAlpha - delta;
+			} else if (bestValue >= windowBeta) {
+				windowBeta = delta > maxAspirationWindow ? Search.infinity : windowBeta + delta;
+			} else {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Search the root moves one after another. Only the first move is searched
+	 * with the full window, the others only have to prove they are worse.
+	 */
+	// AvoidReassigningParameters: Reassigning alpha is idiomatic
+	@SuppressWarnings("PMD.AvoidReassigningParameters")
+	private void searchRoot(Search search, int depth, int[] rootMoves, int rootCount, int alpha, int beta)
+			throws BoardException {
+		bestMove = 0;
+		bestValue = -Search.infinity;
+		bestLine = new ArrayList<Move>();
+
+		SearchBoard searchBoard = search.getBoard();
+		for (int i = 0; i < rootCount; i++) {
+			int move = rootMoves[i];
+			searchBoard.makeMove(move);
+			int value;
+			if (i == 0) {
+				value = -search.negamax(depth - 1, 1, -beta, -alpha);
+			} else {
+				value = search.searchNonPv(depth - 1, 1, alpha, beta);
+			}
+			searchBoard.unmakeMove();
+
+			if (control.isStopped()) {
+				break;
+			}
+
+			if (value > bestValue) {
+				bestValue = value;
+				bestMove = move;
+				bestLine = new ArrayList<Move>();
+				bestLine.add(PackedMove.toMove(move));
+				bestLine.addAll(search.getPrincipalVariation(1));
+			}
+
+			alpha = Math.max(alpha, value);
+			if (value >= beta) {
+				// The window is widened, the other moves do not matter
+				break;
+			}
+		}
+
+		search.flushNodes();
+	}
+
+	/**
+	 * Search of a helper thread. Its results are only shared through the
+	 * transposition table, it runs until the search is stopped or the last depth
+	 * is completed.
+	 */
+	private void searchHelper(int id) {
+		Search search = new Search(board, table, control, moveOrders[id], settings);
+		try {
+			for (int depth = 1 + id % 2; depth <= depthLimit && !control.isStopped(); depth++) {
+				search.negamax(depth, 0, -Search.infinity, Search.infinity);
+			}
+		} catch (BoardException e) {
+			e.printStackTrace();
+		}
+
+		search.flushNodes();
+	}
+}
@@ -0,0 +1,115 @@
+package schach.ai.simple;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import schach.ai.SearchLimits;
+
+/**
+ * SearchControl is shared by all threads of one search. It counts the visited
+ * positions, watches the time and node limits and carries the stop signal.
+ * Searches report their nodes in batches, so the limits are only checked every
+ * few hundred positions. A ponder search ignores the time limits until the
+ * ponder hit. The time it thought before counts, so after a long think of the
+ * opponent it answers at once.
+ */
+class SearchControl {
+	/**
+	 * The amount of positions a search visits before reporting them
+	 */
+	static final int checkInterval = 1024;
+
+	// Moves the rest of the game is assumed to take when dividing the clock
+	private static final int movesToGo = 30;
+	// Time kept on the clock for the overhead around the search
+	private static final long clockReserve = 50;
+
+	private final long start = System.nanoTime();
+	private volatile boolean pondering;
+	// Time limits in nanoseconds since the start
+	private final long timeLimit;
+	private final long softTimeLimit;
+	private final long maxNodes;
+	private final AtomicLong nodes = new AtomicLong();
+	private volatile boolean stopped;
+
+	/**
+	 * Start the control of a search
+	 *
+	 * @param limits the limits of the search
+	 */
+	SearchControl(SearchLimits limits) {
+		long time = Long.MAX_VALUE;
+		long softTime = Long.MAX_VALUE;
+
+		if (limits.getClockTime() > 0) {
+			long available = Math.max(1, limits.getClockTime() - clockReserve);
+			softTime = Math.min(available, limits.getClockTime() / movesToGo + limits.getIncrement() * 3 / 4);
+			// A started depth may run over its share, but never empties the clock
+			time = Math.min(available, softTime * 3);
+			// A new depth takes longer than all before, so it would not finish
+			softTime /= 2;
+		}
+		if (limits.getMoveTime() > 0) {
+			time = Math.min(time, limits.getMoveTime());
+		}
+
+		timeLimit = time == Long.MAX_VALUE ? Long.MAX_VALUE : time * 1_000_000;
+		softTimeLimit = softTime == Long.MAX_VALUE ? Long.MAX_VALUE : softTime * 1_000_000;
+		maxNodes = limits.getNodes() > 0 ? limits.getNodes() : Long.MAX_VALUE;
+		pondering = limits.isPonder();
+	}
+
+	/**
+	 * The opponent played the expected reply, the time limits apply again. The
+	 * move time is measured from the start of the ponder search.
+	 */
+	void ponderHit() {
+		pondering = false;
+	}
+
+	/**
+	 * Stop the search, can be called from any thread
+	 */
+	void stop() {
+		stopped = true;
+	}
+
+	/**
+	 * @return whether the search has to stop
+	 */
+	boolean isStopped() {
+		return stopped;
+	}
+
+	/**
+	 * Report visited positions and stop the search if a limit is reached
+	 *
+	 * @param count the amount of positions visited since the last report
+	 */
+	void addNodes(long count) {
+		if (nodes.addAndGet(count) >= maxNodes || !pondering && System.nanoTime() - start >= timeLimit) {
+			stopped = true;
+		}
+	}
+
+	/**
+	 * @return whether there is enough time left to start another depth
+	 */
+	boolean canStartDepth() {
+		return !stopped && (pondering || System.nanoTime() - start < softTimeLimit);
+	}
+
+	/**
+	 * @return the amount of visited positions
+	 */
+	long getNodes() {
+		return nodes.get();
+	}
+
+	/**
+	 * @return the time since the search started in milliseconds
+	 */
+	long getElapsed() {
+		return (System.nanoTime() - start) / 1_000_000;
+	}
+}
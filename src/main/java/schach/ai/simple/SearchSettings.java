@@ -0,0 +1,181 @@
+package schach.ai.simple;
+
+/**
+ * SearchSettings configures how aggressively the search prunes and reduces.
+ * Weaker settings search deeper in the same time but miss more tactics, so
+ * they can be used to trade strength for speed.
+ */
+public class SearchSettings {
+	private static final int tableSize = 64;
+
+	private int reductionPercent = 100;
+	private int fullDepthMoves = 3;
+	private int[][] reductions = new int[tableSize][tableSize];
+
+	private int futilityMargin = 150;
+	private int reverseFutilityMargin = 120;
+	private int razorMargin = 300;
+	private int seeMargin = 60;
+
+	private int extensionBudget = 8;
+
+	/**
+	 * Creates the default settings
+	 */
+	public SearchSettings() {
+		initReductions();
+	}
+
+	public int getReductionPercent() {
+		return reductionPercent;
+	}
+
+	/**
+	 * Late move reductions search quiet moves that are ordered late with less
+	 * depth. The reduction grows with the depth and the index of the move.
+	 *
+	 * @param reductionPercent the size of the reductions in percent of the
+	 *                         default, 0 to turn them off
+	 * @return these settings
+	 */
+	public SearchSettings setReductionPercent(int reductionPercent) {
+		if (reductionPercent < 0) {
+			throw new IllegalArgumentException("The reduction can not be negative");
+		}
+
+		this.reductionPercent = reductionPercent;
+		initReductions();
+		return this;
+	}
+
+	public int getFullDepthMoves() {
+		return fullDepthMoves;
+	}
+
+	/**
+	 * @param fullDepthMoves the amount of moves of a position that are never
+	 *                       reduced
+	 * @return these settings
+	 */
+	public SearchSettings setFullDepthMoves(int fullDepthMoves) {
+		this.fullDepthMoves = fullDepthMoves;
+		return this;
+	}
+
+	public int getFutilityMargin() {
+		return futilityMargin;
+	}
+
+	/**
+	 * Futility pruning skips quiet moves near the horizon if the static evaluation
+	 * plus the margin per remaining ply can not reach alpha
+	 *
+	 * @param futilityMargin the margin per ply in centipawns, 0 to turn it off
+	 * @return these settings
+	 */
+	public SearchSettings setFutilityMargin(int futilityMargin) {
+		this.futilityMargin = checkMargin(futilityMargin);
+		return this;
+	}
+
+	public int getReverseFutilityMargin() {
+		return reverseFutilityMargin;
+	}
+
+	/**
+	 * Reverse futility pruning cuts off a position near the horizon if the static
+	 * evaluation minus the margin per remaining ply still beats beta
+	 *
+	 * @param reverseFutilityMargin the margin per ply in centipawns, 0 to turn it
+	 *                              off
+	 * @return these settings
+	 */
+	public SearchSettings setReverseFutilityMargin(int reverseFutilityMargin) {
+		this.reverseFutilityMargin = checkMargin(reverseFutilityMargin);
+		return this;
+	}
+
+	public int getRazorMargin() {
+		return razorMargin;
+	}
+
+	/**
+	 * Razoring drops a position near the horizon into the quiescence search if the
+	 * static evaluation plus the margin per remaining ply can not reach alpha
+	 *
+	 * @param razorMargin the margin per ply in centipawns, 0 to turn it off
+	 * @return these settings
+	 */
+	public SearchSettings setRazorMargin(int razorMargin) {
+		this.razorMargin = checkMargin(razorMargin);
+		return this;
+	}
+
+	public int getSeeMargin() {
+		return seeMargin;
+	}
+
+	/**
+	 * Quiet moves near the horizon are skipped if the static exchange evaluation
+	 * loses more than the margin per remaining ply, e.g. a piece moved to a square
+	 * where it is taken for free
+	 *
+	 * @param seeMargin the margin per ply in centipawns, 0 to turn it off
+	 * @return these settings
+	 */
+	public SearchSettings setSeeMargin(int seeMargin) {
+		this.seeMargin = checkMargin(seeMargin);
+		return this;
+	}
+
+	public int getExtensionBudget() {
+		return extensionBudget;
+	}
+
+	/**
+	 * Checks, positions with a single reply, recaptures and pawn pushes to the
+	 * seventh rank are searched one ply deeper. The budget limits how many of
+	 * these extensions a line from the root can collect, so the search ends.
+	 *
+	 * @param extensionBudget the most extensions per line, 0 to turn them off
+	 * @return these settings
+	 */
+	public SearchSettings setExtensionBudget(int extensionBudget) {
+		if (extensionBudget < 0) {
+			throw new IllegalArgumentException("The budget can not be negative");
+		}
+
+		this.extensionBudget = extensionBudget;
+		return this;
+	}
+
+	/**
+	 * @param depth the remaining depth
+	 * @param index the index of the move in the move order
+	 * @return the late move reduction of the move, before exemptions
+	 */
+	int getReduction(int depth, int index) {
+		if (index < fullDepthMoves) {
+			return 0;
+		}
+
+		return reductions[Math.min(depth, tableSize - 1)][Math.min(index, tableSize - 1)];
+	}
+
+	private static int checkMargin(int margin) {
+		if (margin < 0) {
+			throw new IllegalArgumentException("The margin can not be negative");
+		}
+
+		return margin;
+	}
+
+	private void initReductions() {
+		for (int depth = 1; depth < tableSize; depth++) {
+			for (int index = 1; index < tableSize; index++) {
+				double reduction = 0.75 + Math.log(depth) * Math.log(index) / 2.25;
+				reductions[depth][index] = (int) (reduction * reductionPercent / 100);
+			}
+		}
+	}
+}
@@ -0,0 +1,272 @@
+package schach.ai.simple;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed size transposition table shared by all search threads. Every entry is
+ * two longs: the position hash XOR the data, and the data itself. Entries are
+ * written without locks, so two threads can interleave their writes to the
+ * same entry. Such a torn entry no longer verifies (hash XOR data does not
+ * match) and is treated as a miss.
+ *
+ * <pre>
+ * data bits  0 - 18: best move (packed move, 0 if none)
+ * data bits 19 - 20: bound
+ * data bits 21 - 28: depth
+ * data bits 29 - 34: age of the search that stored the entry
+ * data bits 35 - 63: score
+ * </pre>
+ */
+public class TranspositionTable {
+	/**
+	 * The score is exact
+	 */
+	static final int exactBound = 1;
+
+	/**
+	 * The score is a lower bound (the search failed high)
+	 */
+	static final int lowerBound = 2;
+
+	/**
+	 * The score is an upper bound (the search failed low)
+	 */
+	static final int upperBound = 3;
+
+	private static final int entryLongs = 2;
+	private static final int bytesPerEntry = entryLongs * Long.BYTES;
+
+	private static final int moveBits = 19;
+	private static final int boundShift = 19;
+	private static final int depthShift = 21;
+	private static final int ageShift = 29;
+	private static final int scoreShift = 35;
+	private static final int ageMask = 0x3F;
+
+	private final long[] table;
+	private final int mask;
+	private volatile int age;
+
+	private final LongAdder probes = new LongAdder();
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder stores = new LongAdder();
+	private final LongAdder collisions = new LongAdder();
+
+	/**
+	 * Creates a new transposition table
+	 *
+	 * @param sizeMb the size of the table in MB. The amount of entries is rounded
+	 *               down to a power of two.
+	 */
+	public TranspositionTable(int sizeMb) {
+		if (sizeMb < 1) {
+			throw new IllegalArgumentException("The size has to be at least 1 MB");
+		}
+
+		long entries = Long.highestOneBit((long) sizeMb * 1024 * 1024 / bytesPerEntry);
+		// A Java array can not hold more entries
+		entries = Math.min(entries, 1L << 29);
+
+		table = new long[(int) entries * entryLongs];
+		mask = (int) entries - 1;
+	}
+
+	/**
+	 * Look up a position
+	 *
+	 * @param hash the Zobrist hash of the position
+	 * @return the data of the entry, 0 if there is none
+	 */
+	long probe(long hash) {
+		probes.increment();
+
+		int index = index(hash);
+		long data = table[index + 1];
+		if ((table[index] ^ data) != hash || data == 0) {
+			return 0;
+		}
+
+		hits.increment();
+		return data;
+	}
+
+	/**
+	 * Store the result of a search of a position. An entry of the same position
+	 * is only replaced by a search that is at least as deep or exact, entries of
+	 * other positions are replaced if they are from an older search or not
+	 * deeper.
+	 *
+	 * @param hash  the Zobrist hash of the position
+	 * @param depth the depth the position was searched with
+	 * @param bound the bound of the score
+	 * @param score the score from the view of the side to move
+	 * @param ply   the distance of the position to the root, to store mate scores
+	 *              relative to the position
+	 * @param move  the best move as packed move, 0 if none
+	 */
+	void store(long hash, int depth, int bound, int score, int ply, int move) {
+		int index = index(hash);
+		long oldData = table[index + 1];
+		long oldHash = table[index] ^ oldData;
+
+		if (oldData != 0) {
+			if (oldHash == hash) {
+				if (depth < getDepth(oldData) && bound != exactBound) {
+					return;
+				}
+				if (move == 0) {
+					// Keep the known best move
+					move = getMove(oldData);
+				}
+			} else {
+				if (getAge(oldData) == age && depth < getDepth(oldData)) {
+					return;
+				}
+				collisions.increment();
+			}
+		}
+
+		long data = (move & ((1L << moveBits) - 1)) | (long) bound << boundShift | (long) depth << depthShift
+				| (long) age << ageShift | (long) toStored(score, ply) << scoreShift;
+		table[index] = hash ^ data;
+		table[index + 1] = data;
+		stores.increment();
+	}
+
+	/**
+	 * Start a new search. Entries of older searches are replaced first.
+	 */
+	void newSearch() {
+		age = (age + 1) & ageMask;
+	}
+
+	/**
+	 * Remove all entries and reset the statistics
+	 */
+	public void clear() {
+		Arrays.fill(table, 0);
+		probes.reset();
+		hits.reset();
+		stores.reset();
+		collisions.reset();
+	}
+
+	/**
+	 * @return the amount of entries the table can hold
+	 */
+	public int getCapacity() {
+		return mask + 1;
+	}
+
+	/**
+	 * @return the amount of lookups
+	 */
+	public long getProbes() {
+		return probes.sum();
+	}
+
+	/**
+	 * @return the amount of lookups that found their position
+	 */
+	public long getHits() {
+		return hits.sum();
+	}
+
+	/**
+	 * @return the amount of stored entries
+	 */
+	public long getStores() {
+		return stores.sum();
+	}
+
+	/**
+	 * @return the amount of stores that replaced an entry of another position
+	 */
+	public long getCollisions() {
+		return collisions.sum();
+	}
+
+	/**
+	 * @return the share of lookups that found their position, from 0 to 1
+	 */
+	public double getHitRate() {
+		long probes = getProbes();
+		return probes == 0 ? 0 : (double) getHits() / probes;
+	}
+
+	/**
+	 * @return the share of stores that replaced an entry of another position, from
+	 *         0 to 1
+	 */
+	public double getCollisionRate() {
+		long stores = getStores();
+		return stores == 0 ? 0 : (double) getCollisions() / stores;
+	}
+
+	/**
+	 * @param data the data of an entry
+	 * @return the best move as packed move, 0 if none
+	 */
+	static int getMove(long data) {
+		return (int) (data & ((1L << moveBits) - 1));
+	}
+
+	/**
+	 * @param data the data of an entry
+	 * @return the bound of the score
+	 */
+	static int getBound(long data) {
+		return (int) (data >>> boundShift & 0x3);
+	}
+
+	/**
+	 * @param data the data of an entry
+	 * @return the depth the position was searched with
+	 */
+	static int getDepth(long data) {
+		return (int) (data >>> depthShift & 0xFF);
+	}
+
+	/**
+	 * @param data the data of an entry
+	 * @param ply  the distance of the position to the root
+	 * @return the score from the view of the side to move
+	 */
+	static int getScore(long data, int ply) {
+		// Arithmetic shift keeps the sign
+		return fromStored((int) (data >> scoreShift), ply);
+	}
+
+	private static int getAge(long data) {
+		return (int) (data >>> ageShift & ageMask);
+	}
+
+	private int index(long hash) {
+		return ((int) hash & mask) * entryLongs;
+	}
+
+	/**
+	 * Mate scores count the plies from the root, but a position can be reached at
+	 * different plies. So they are stored relative to the position.
+	 */
+	private static int toStored(int score, int ply) {
+		if (score > Search.mateThreshold) {
+			return score + ply;
+		} else if (score < -Search.mateThreshold) {
+			return score - ply;
+		}
+
+		return score;
+	}
+
+	private static int fromStored(int score, int ply) {
+		if (score > Search.mateThreshold) {
+			return score - ply;
+		} else if (score < -Search.mateThreshold) {
+			return score + ply;
+		}
+
+		return score;
+	}
+}
@@ -23,6 +23,16 @@ public interface IBoard {
 	 */
 	List<Move> getValidMoves();
 
+	/**
+	 * Generates valid moves on an board as packed moves (see {@link PackedMove})
+	 * without creating move objects
+	 * 
+	 * @param moves the buffer to fill with the moves, has to hold at least
+	 *              {@link PackedMove#maxMoves} moves
+	 * @return the amount of moves written to the buffer
+	 */
+	int getValidMoves(int[] moves);
+
 	/**
 	 * Generates valid moves on an board for a given position
 	 * 
@@ -38,6 +48,22 @@ public interface IBoard {
 	 */
 	BoardStatus getStatus();
 
+	/**
+	 * Checks if the side to move is in check without calculating the status
+	 * 
+	 * @return whether the king of the side to move is attacked
+	 */
+	boolean isInCheck();
+
+	/**
+	 * Checks if there is any valid move without generating all of them. This is
+	 * the same as {@code !getValidMoves().isEmpty()}, so it is false for a board
+	 * with a draw.
+	 * 
+	 * @return whether the side to move has a valid move
+	 */
+	boolean hasAnyValidMove();
+
 	/**
 	 * Get the side to move
 	 * 
@@ -62,6 +88,31 @@ public interface IBoard {
 	 */
 	PieceType pieceAt(Position position, Color color);
 
+	/**
+	 * Tests if a piece is at the given square
+	 * 
+	 * @param square the square index (file + rank * 8) to check for a piece
+	 * @return piece at the given square. null if no piece
+	 */
+	PieceType pieceAt(int square);
+
+	/**
+	 * Tests if a piece of one color is at the given square
+	 * 
+	 * @param square the square index (file + rank * 8) to check for a piece
+	 * @param color  the color to check for
+	 * @return piece with the given color at the given square. null if no piece
+	 */
+	PieceType pieceAt(int square, Color color);
+
+	/**
+	 * Get the Zobrist hash of the position. Boards with the same pieces, side to
+	 * move, castle rights and en passant have the same hash.
+	 * 
+	 * @return the 64 bit hash of the position
+	 */
+	long getZobristHash();
+
 	/**
 	 * Get the castle rights for the given color
 	 * 
@@ -1,7 +1,5 @@
 package schach.board;
 
-import java.util.Objects;
-
 /**
  * Represents a Move with a start position and a final position. A promotion
  * would be saved here too.
@@ -74,7 +72,9 @@ public final class Move {
 
 	@Override
 	public int hashCode() {
-		return Objects.hash(from, to, promotion != null ? promotion : PieceType.Queen);
+		// Same layout as PackedMove, no promotion counts as queen like in equals
+		PieceType promotionOrQueen = promotion != null ? promotion : PieceType.Queen;
+		return from.getSquare() | to.getSquare() << 6 | promotionOrQueen.ordinal() << 12;
 	}
 
 	@Override
@@ -0,0 +1,170 @@
+package schach.board;
+
+/**
+ * PackedMove encodes a move into a single int, so move lists can be kept in
+ * plain int arrays. Squares are indexed by file + rank * 8.
+ *
+ * <pre>
+ * bits  0 -  5: from square
+ * bits  6 - 11: to square
+ * bits 12 - 14: promotion (PieceType ordinal + 1, 0 if none)
+ * bits 15 - 18: flags (capture, en passant, castle, double pawn push)
+ * </pre>
+ */
+public final class PackedMove {
+	/**
+	 * Size of a move buffer that can hold all valid moves of any position
+	 */
+	public static final int maxMoves = 256;
+
+	/**
+	 * The move beats a piece (including en passant)
+	 */
+	public static final int captureFlag = 1 << 15;
+
+	/**
+	 * The move beats a pawn en passant
+	 */
+	public static final int enPassantFlag = 1 << 16;
+
+	/**
+	 * The move is a castle move of the king
+	 */
+	public static final int castleFlag = 1 << 17;
+
+	/**
+	 * The move advances a pawn by two ranks
+	 */
+	public static final int doublePawnPushFlag = 1 << 18;
+
+	private static final int squareMask = 0x3F;
+	private static final int promotionShift = 12;
+	private static final int promotionMask = 0x7;
+
+	private static final PieceType[] pieceTypes = PieceType.values();
+
+	private PackedMove() {
+	}
+
+	/**
+	 * Encode a move
+	 *
+	 * @param from      the start square
+	 * @param to        the final square
+	 * @param promotion the promotion, null if none
+	 * @param flags     the flags of the move
+	 * @return the packed move
+	 */
+	public static int encode(int from, int to, PieceType promotion, int flags) {
+		int promotionBits = promotion != null ? promotion.ordinal() + 1 : 0;
+		return from | to << 6 | promotionBits << promotionShift | flags;
+	}
+
+	/**
+	 * Encode a move without promotion
+	 *
+	 * @param from  the start square
+	 * @param to    the final square
+	 * @param flags the flags of the move
+	 * @return the packed move
+	 */
+	public static int encode(int from, int to, int flags) {
+		return from | to << 6 | flags;
+	}
+
+	/**
+	 * Encode a move. The flags can not be derived from a move without a board, so
+	 * they are not set.
+	 *
+	 * @param move the move
+	 * @return the packed move without flags
+	 */
+	public static int fromMove(Move move) {
+		return encode(move.getFrom().getSquare(), move.getTo().getSquare(), move.getPromotion(), 0);
+	}
+
+	/**
+	 * Decode a packed move
+	 *
+	 * @param move the packed move
+	 * @return the move
+	 */
+	public static Move toMove(int move) {
+		return new Move(Position.of(getFrom(move)), Position.of(getTo(move)), getPromotion(move));
+	}
+
+	/**
+	 * @param move the packed move
+	 * @return the start square
+	 */
+	public static int getFrom(int move) {
+		return move & squareMask;
+	}
+
+	/**
+	 * @param move the packed move
+	 * @return the final square
+	 */
+	public static int getTo(int move) {
+		return move >>> 6 & squareMask;
+	}
+
+	/**
+	 * @param move the packed move
+	 * @return the promotion, null if none
+	 */
+	public static PieceType getPromotion(int move) {
+		int promotionBits = move >>> promotionShift & promotionMask;
+		return promotionBits != 0 ? pieceTypes[promotionBits - 1] : null;
+	}
+
+	/**
+	 * @param move the packed move
+	 * @return whether the move beats a piece
+	 */
+	public static boolean isCapture(int move) {
+		return (move & captureFlag) != 0;
+	}
+
+	/**
+	 * @param move the packed move
+	 * @return whether the move beats a pawn en passant
+	 */
+	public static boolean isEnPassant(int move) {
+		return (move & enPassantFlag) != 0;
+	}
+
+	/**
+	 * @param move the packed move
+	 * @return whether the move is a castle move
+	 */
+	public static boolean isCastle(int move) {
+		return (move & castleFlag) != 0;
+	}
+
+	/**
+	 * @param move the packed move
+	 * @return whether the move has a promotion
+	 */
+	public static boolean isPromotion(int move) {
+		return (move >>> promotionShift & promotionMask) != 0;
+	}
+
+	/**
+	 * @param move the packed move
+	 * @return whether the move advances a pawn by two ranks
+	 */
+	public static boolean isDoublePawnPush(int move) {
+		return (move & doublePawnPushFlag) != 0;
+	}
+
+	/**
+	 * Formats a packed move like {@link Move#toString()}
+	 *
+	 * @param move the packed move
+	 * @return the move as string
+	 */
+	public static String toString(int move) {
+		return toMove(move).toString();
+	}
+}
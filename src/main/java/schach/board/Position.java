@@ -4,6 +4,14 @@ package schach.board;
  * Represents a Position on the chess board
  */
 public class Position {
+	private static final Position[] positions = new Position[64];
+
+	static {
+		for (int square = 0; square < 64; square++) {
+			positions[square] = new Position(square % 8, square / 8);
+		}
+	}
+
 	private final int file;
 	private final int rank;
 
@@ -32,6 +40,39 @@ public class Position {
 		rank = position.rank;
 	}
 
+	/**
+	 * Get the shared instance of a position. Positions are immutable, so this
+	 * should be preferred over the constructor to avoid creating new objects.
+	 * 
+	 * @param file
+	 * @param rank
+	 * @return the position for file and rank
+	 */
+	public static Position of(int file, int rank) {
+		if (!Position.isValid(file, rank)) {
+			throw new RuntimeException("Invalid rank or file");
+		}
+
+		return positions[file + rank * 8];
+	}
+
+	/**
+	 * Get the shared instance of a position by its square index
+	 * 
+	 * @param square the square index (file + rank * 8) from 0 to 63
+	 * @return the position of the square
+	 */
+	public static Position of(int square) {
+		return positions[square];
+	}
+
+	/**
+	 * @return the square index of this position (file + rank * 8)
+	 */
+	public int getSquare() {
+		return file + rank * 8;
+	}
+
 	/**
 	 * @return the rank
 	 */
@@ -64,7 +105,7 @@ public class Position {
 	 * @return new position with this + delta
 	 */
 	public Position add(PositionDelta delta) {
-		return new Position(file + delta.getFileDelta(), rank + delta.getRankDelta());
+		return Position.of(file + delta.getFileDelta(), rank + delta.getRankDelta());
 	}
 
 	/**
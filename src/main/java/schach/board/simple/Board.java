@@ -11,8 +11,11 @@ import schach.board.*;
 public class Board implements IBoard {
 	private BoardData data;
 
-	private List<Move> validMoves;
-	private BoardStatus status;
+	// Calculated once on first use, since most boards in a search never need
+	// them. Boards are shared between threads, see getValidMoves and getStatus.
+	private volatile int[] validPackedMoves;
+	private volatile List<Move> validMoves;
+	private volatile BoardStatus status;
 
 	/**
 	 * Creates a new board in the initial position
@@ -20,7 +23,6 @@ public class Board implements IBoard {
 	public Board() {
 		data = new BoardData();
 
-		validMoves = calcValidMoves();
 		status = BoardStatus.Ongoing;
 	}
 
@@ -35,42 +37,50 @@ public class Board implements IBoard {
 
 		data = new BoardData(fen);
 
-		validMoves = calcValidMoves();
-		status = calcStatus();
-
 		// TODO Check if board is sane
 	}
 
-	private Board(BoardData data) {
+	Board(BoardData data) {
 		this.data = data;
-
-		validMoves = calcValidMoves();
-		this.status = calcStatus();
 	}
 
 	@Override
 	public BoardResult move(Move move) throws BoardException {
 		// Check move is in validMoves
-		if (!validMoves.contains(move)) {
+		if (!getValidMoves().contains(move)) {
 			throw new BoardException("Invalid move");
 		}
 
-		BoardDataResult boardDataResult = this.data.newFromPseudoValidMove(move);
-		Board board = new Board(boardDataResult.boardData);
+		// The move is legal, so it can be applied to a copy without further checks
+		BoardData dataNew = new BoardData(data);
+		PieceType beaten = dataNew.applyPseudoValidMove(move);
 
-		return new BoardResult(board, boardDataResult.beaten);
+		return new BoardResult(new Board(dataNew), beaten);
 	}
 
 	@Override
 	public List<Move> getValidMoves() {
-		return Collections.unmodifiableList(validMoves);
+		List<Move> moves = validMoves;
+		if (moves == null) {
+			moves = calcValidMoves();
+		}
+
+		return moves;
+	}
+
+	@Override
+	public int getValidMoves(int[] moves) {
+		// validPackedMoves is set before validMoves
+		int count = getValidMoves().size();
+		System.arraycopy(validPackedMoves, 0, moves, 0, count);
+		return count;
 	}
 
 	@Override
 	public List<Move> getValidMoves(Position position) {
 		ArrayList<Move> moves = new ArrayList<Move>();
 
-		for (Move validMove : validMoves) {
+		for (Move validMove : getValidMoves()) {
 			if (validMove.getFrom().equals(position)) {
 				moves.add(validMove);
 			}
@@ -81,9 +91,24 @@ public class Board implements IBoard {
 
 	@Override
 	public BoardStatus getStatus() {
+		BoardStatus status = this.status;
+		if (status == null) {
+			status = calcStatus();
+		}
+
 		return status;
 	}
 
+	@Override
+	public boolean isInCheck() {
+		return BoardMoveGen.isInCheck(data);
+	}
+
+	@Override
+	public boolean hasAnyValidMove() {
+		return !getStatus().isOver();
+	}
+
 	@Override
 	public Color getSideToMove() {
 		return data.getFlags().getSideToMove();
@@ -99,6 +124,21 @@ public class Board implements IBoard {
 		return data.pieceAt(position, color);
 	}
 
+	@Override
+	public PieceType pieceAt(int square) {
+		return data.pieceAt(square);
+	}
+
+	@Override
+	public PieceType pieceAt(int square, Color color) {
+		return data.pieceAt(square, color);
+	}
+
+	@Override
+	public long getZobristHash() {
+		return data.getZobristHash();
+	}
+
 	@Override
 	public CastleRights getCastleRights(Color color) {
 		return data.getFlags().getCastleRights(color);
@@ -109,130 +149,66 @@ public class Board implements IBoard {
 		return data.getPositionsOf(PieceType.King, color).get(0);
 	}
 
-	private List<Move> calcValidMoves() {
-		List<Move> pseudoValidMoves = BoardMoveGen.genPseudoMoves(data);
-		ArrayList<Move> moves = new ArrayList<Move>();
-
-		for (Move pseudoValidMove : pseudoValidMoves) {
-			if (checkPseudoValidMove(pseudoValidMove)) {
-				moves.add(pseudoValidMove);
-			}
+	/**
+	 * Boards are equal if they have the same position (pieces, side to move,
+	 * castle rights and en passant), regardless of how they were reached.
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
 		}
-
-		return moves;
-	}
-
-	private boolean checkPseudoValidMove(Move move) {
-		// Try to create new board data from move
-		// Okay -> move is valid -> return true
-		// Err -> move is invalid -> return false
-		try {
-			// Ignore the result, we are only interested if this throws
-			this.data.newFromPseudoValidMove(move);
-		} catch (BoardException e) {
+		if (!(obj instanceof Board)) {
 			return false;
 		}
 
-		return true;
+		Board other = (Board) obj;
+		return data.isSamePosition(other.data);
+	}
+
+	@Override
+	public int hashCode() {
+		return Long.hashCode(data.getZobristHash());
 	}
 
 	/**
-	 * Calculate the status of this board
+	 * @return the board data of this board
 	 */
-	private BoardStatus calcStatus() {
-		if (data.getFlags().getHalfmoveClock() >= 50) {
-			// Reset valid moves
-			validMoves.clear();
-			return BoardStatus.DrawByFiftyMoveRule;
-		}
-
-		// Calc Check
-		Position kingPosition = data.getPositionsOf(PieceType.King, data.getFlags().getSideToMove()).get(0);
-		boolean isCheck = data.isPseudoAttacked(kingPosition, data.getFlags().getSideToMove().getInverted());
-
-		// Set Status
-		if (isCheck) {
-			if (validMoves.size() == 0) {
-				return BoardStatus.Checkmate;
-			} else {
-				return BoardStatus.Check;
-			}
-		} else {
-			if (validMoves.size() == 0) {
-				return BoardStatus.DrawByStalemate;
-			} else {
-				boolean sufficientMaterial = isSufficientMaterial();
-				if (sufficientMaterial) {
-					return BoardStatus.Ongoing;
-				} else {
-					// Reset valid moves
-					validMoves.clear();
-					return BoardStatus.DrawByInsufficientMaterial;
-				}
-			}
-		}
+	BoardData getData() {
+		return data;
 	}
 
-	private boolean isSufficientMaterial() {
-		int whitePiecesCount = data.whitePiecesCount();
-		int blackPiecesCount = data.blackPiecesCount();
-
-		if (isKingVsKing(whitePiecesCount, blackPiecesCount)) {
-			return false;
+	private synchronized List<Move> calcValidMoves() {
+		if (validMoves != null) {
+			// Calculated by another thread in the meantime
+			return validMoves;
 		}
 
-		if (isOneBishopOrKnight(whitePiecesCount, blackPiecesCount)) {
-			return false;
+		int[] packedMoves = new int[PackedMove.maxMoves];
+		int count = 0;
+		if (hasAnyValidMove()) {
+			// No moves after the game is over
+			count = BoardMoveGen.genLegalMoves(data, packedMoves);
 		}
 
-		if (isKingsAndBishops(whitePiecesCount, blackPiecesCount)) {
-			return false;
+		ArrayList<Move> moves = new ArrayList<Move>(count);
+		for (int i = 0; i < count; i++) {
+			moves.add(PackedMove.toMove(packedMoves[i]));
 		}
 
-		final boolean sufficientMaterial = true;
-		return sufficientMaterial;
-	}
-
-	private boolean isKingVsKing(int whitePiecesCount, int blackPiecesCount) {
-		// King vs King
-		return whitePiecesCount == 1 && blackPiecesCount == 1;
+		validPackedMoves = packedMoves;
+		validMoves = Collections.unmodifiableList(moves);
+		return validMoves;
 	}
 
-	private boolean isOneBishopOrKnight(int whitePiecesCount, int blackPiecesCount) {
-		// King+(Bishop/Knight) vs King
-		if (whitePiecesCount == 2 && blackPiecesCount == 1
-				&& (data.getPositionsOf(PieceType.Bishop, Color.White).size() == 1
-						|| data.getPositionsOf(PieceType.Knight, Color.White).size() == 1)) {
-			return true;
-		}
-
-		// King vs King+(Bishop/Knight)
-		if (whitePiecesCount == 1 && blackPiecesCount == 2
-				&& (data.getPositionsOf(PieceType.Bishop, Color.Black).size() == 1
-						|| data.getPositionsOf(PieceType.Knight, Color.Black).size() == 1)) {
-			return true;
-		}
-
-		final boolean oneBishopOrKnight = false;
-		return oneBishopOrKnight;
-	}
-
-	private boolean isKingsAndBishops(int whitePiecesCount, int blackPiecesCount) {
-		// King+Bishop vs King+Bishop (Bishops on same color)
-		if (whitePiecesCount == 2 && blackPiecesCount == 2) {
-			List<Position> positionsOfWhiteBishops = data.getPositionsOf(PieceType.Bishop, Color.White);
-			List<Position> positionsOfBlackBishops = data.getPositionsOf(PieceType.Bishop, Color.Black);
-			if (positionsOfWhiteBishops.size() == 1 && positionsOfBlackBishops.size() == 1) {
-				Position white = positionsOfWhiteBishops.get(0);
-				Position black = positionsOfWhiteBishops.get(0);
-				boolean onSameColor = (white.getRank() + white.getFile()) % 2 == (black.getRank() + black.getFile())
-						% 2;
-				if (onSameColor) {
-					return true;
-				}
-			}
+	/**
+	 * Calculate the status of this board
+	 */
+	private synchronized BoardStatus calcStatus() {
+		if (status == null) {
+			status = BoardStatusCalc.calcStatus(data);
 		}
 
-		return false;
+		return status;
 	}
 }
@@ -0,0 +1,278 @@
+package schach.board.simple;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import schach.board.*;
+
+/**
+ * BoardAttacks provides precalculated attack tables. Slider attacks (rook,
+ * bishop, queen) are looked up with magic bitboards: the relevant occupancy of
+ * a square is multiplied with a magic number and shifted down to get an index
+ * into the attack table of that square. Squares are indexed by file + rank * 8,
+ * matching the bitboards of BoardData.
+ */
+final class BoardAttacks {
+	private static final int[][] rookDeltas = { { 0, 1 }, { 0, -1 }, { 1, 0 }, { -1, 0 } };
+	private static final int[][] bishopDeltas = { { 1, 1 }, { 1, -1 }, { -1, 1 }, { -1, -1 } };
+	private static final int[][] knightDeltas = { { 1, 2 }, { 2, 1 }, { 2, -1 }, { 1, -2 }, { -1, -2 }, { -2, -1 },
+			{ -2, 1 }, { -1, 2 } };
+	private static final int[][] kingDeltas = { { 0, 1 }, { 1, 1 }, { 1, 0 }, { 1, -1 }, { 0, -1 }, { -1, -1 },
+			{ -1, 0 }, { -1, 1 } };
+
+	// Fixed seed, so the magics (and thereby the startup time) are always the same
+	private static final long magicSeed = 0x5C4AC4L;
+
+	private static final long[] rookMasks = new long[64];
+	private static final long[] rookMagics = new long[64];
+	private static final int[] rookShifts = new int[64];
+	private static final long[][] rookTable = new long[64][];
+
+	private static final long[] bishopMasks = new long[64];
+	private static final long[] bishopMagics = new long[64];
+	private static final int[] bishopShifts = new int[64];
+	private static final long[][] bishopTable = new long[64][];
+
+	private static final long[] knightTable = new long[64];
+	private static final long[] kingTable = new long[64];
+	private static final long[][] pawnTable = new long[2][64];
+
+	private static final long[][] betweenTable = new long[64][64];
+	private static final long[][] lineTable = new long[64][64];
+
+	static {
+		Random random = new Random(magicSeed);
+
+		for (int square = 0; square < 64; square++) {
+			initMagic(square, rookDeltas, rookMasks, rookMagics, rookShifts, rookTable, random);
+			initMagic(square, bishopDeltas, bishopMasks, bishopMagics, bishopShifts, bishopTable, random);
+
+			knightTable[square] = stepAttacks(square, knightDeltas);
+			kingTable[square] = stepAttacks(square, kingDeltas);
+			pawnTable[Color.White.ordinal()][square] = stepAttacks(square, new int[][] { { -1, 1 }, { 1, 1 } });
+			pawnTable[Color.Black.ordinal()][square] = stepAttacks(square, new int[][] { { -1, -1 }, { 1, -1 } });
+
+			initLines(square, rookDeltas);
+			initLines(square, bishopDeltas);
+		}
+	}
+
+	private BoardAttacks() {
+	}
+
+	/**
+	 * Get the squares attacked by a rook
+	 *
+	 * @param square    the square of the rook
+	 * @param occupancy all occupied squares
+	 * @return the attacked squares including the first blocker in each direction
+	 */
+	static long rookAttacks(int square, long occupancy) {
+		long relevant = occupancy & rookMasks[square];
+		return rookTable[square][(int) ((relevant * rookMagics[square]) >>> rookShifts[square])];
+	}
+
+	/**
+	 * Get the squares attacked by a bishop
+	 *
+	 * @param square    the square of the bishop
+	 * @param occupancy all occupied squares
+	 * @return the attacked squares including the first blocker in each direction
+	 */
+	static long bishopAttacks(int square, long occupancy) {
+		long relevant = occupancy & bishopMasks[square];
+		return bishopTable[square][(int) ((relevant * bishopMagics[square]) >>> bishopShifts[square])];
+	}
+
+	/**
+	 * Get the squares attacked by a queen
+	 *
+	 * @param square    the square of the queen
+	 * @param occupancy all occupied squares
+	 * @return the attacked squares including the first blocker in each direction
+	 */
+	static long queenAttacks(int square, long occupancy) {
+		return rookAttacks(square, occupancy) | bishopAttacks(square, occupancy);
+	}
+
+	/**
+	 * @param square the square of the knight
+	 * @return the squares attacked by a knight
+	 */
+	static long knightAttacks(int square) {
+		return knightTable[square];
+	}
+
+	/**
+	 * @param square the square of the king
+	 * @return the squares attacked by a king
+	 */
+	static long kingAttacks(int square) {
+		return kingTable[square];
+	}
+
+	/**
+	 * @param color  the color of the pawn
+	 * @param square the square of the pawn
+	 * @return the squares attacked by a pawn of the given color
+	 */
+	static long pawnAttacks(Color color, int square) {
+		return pawnTable[color.ordinal()][square];
+	}
+
+	/**
+	 * @param from the first square
+	 * @param to   the second square
+	 * @return the squares strictly between both squares if they are on a common
+	 *         rank, file or diagonal, 0 otherwise
+	 */
+	static long between(int from, int to) {
+		return betweenTable[from][to];
+	}
+
+	/**
+	 * @param from the first square
+	 * @param to   the second square
+	 * @return the whole rank, file or diagonal through both squares (from border
+	 *         to border), 0 if they are not on a common line
+	 */
+	static long line(int from, int to) {
+		return lineTable[from][to];
+	}
+
+	private static void initLines(int square, int[][] deltas) {
+		for (int[] delta : deltas) {
+			int[][] direction = { delta };
+			int[][] bothDirections = { delta, { -delta[0], -delta[1] } };
+			long line = slidingAttacks(square, 0, bothDirections) | 1L << square;
+
+			long between = 0;
+			for (long ray = slidingAttacks(square, 0, direction); ray != 0;) {
+				// Walk the ray from the square outwards
+				int to = nearest(square, ray);
+				betweenTable[square][to] = between;
+				lineTable[square][to] = line;
+				between |= 1L << to;
+				ray &= ~(1L << to);
+			}
+		}
+	}
+
+	private static int nearest(int square, long squares) {
+		if (Long.numberOfTrailingZeros(squares) > square) {
+			return Long.numberOfTrailingZeros(squares);
+		} else {
+			return 63 - Long.numberOfLeadingZeros(squares);
+		}
+	}
+
+	// ExcessiveParameterList: The tables are passed in, so rooks and bishops can
+	// share the initialization
+	@SuppressWarnings("PMD.ExcessiveParameterList")
+	private static void initMagic(int square, int[][] deltas, long[] masks, long[] magics, int[] shifts,
+			long[][] table, Random random) {
+		long mask = relevantMask(square, deltas);
+		int bits = Long.bitCount(mask);
+		int size = 1 << bits;
+
+		// Enumerate all subsets of the mask (carry-rippler) and their attacks
+		long[] occupancies = new long[size];
+		long[] attacks = new long[size];
+		long subset = 0;
+		for (int i = 0; i < size; i++) {
+			occupancies[i] = subset;
+			attacks[i] = slidingAttacks(square, subset, deltas);
+			subset = (subset - mask) & mask;
+		}
+
+		// Search a magic that maps every subset to an index without destructive
+		// collisions
+		long[] squareTable = new long[size];
+		boolean[] used = new boolean[size];
+		while (true) {
+			long magic = random.nextLong() & random.nextLong() & random.nextLong();
+			if (Long.bitCount((mask * magic) & 0xFF00_0000_0000_0000L) < 6) {
+				continue;
+			}
+
+			if (tryMagic(magic, 64 - bits, occupancies, attacks, squareTable, used)) {
+				masks[square] = mask;
+				magics[square] = magic;
+				shifts[square] = 64 - bits;
+				table[square] = squareTable;
+				return;
+			}
+		}
+	}
+
+	private static boolean tryMagic(long magic, int shift, long[] occupancies, long[] attacks, long[] squareTable,
+			boolean[] used) {
+		Arrays.fill(used, false);
+
+		for (int i = 0; i < occupancies.length; i++) {
+			int index = (int) ((occupancies[i] * magic) >>> shift);
+			if (!used[index]) {
+				used[index] = true;
+				squareTable[index] = attacks[i];
+			} else if (squareTable[index] != attacks[i]) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	private static long relevantMask(int square, int[][] deltas) {
+		long mask = 0;
+
+		for (int[] delta : deltas) {
+			int file = square % 8 + delta[0];
+			int rank = square / 8 + delta[1];
+
+			// The last square of a ray does not matter, it is attacked either way
+			while (Position.isValid(file + delta[0], rank + delta[1])) {
+				mask |= 1L << (file + rank * 8);
+				file += delta[0];
+				rank += delta[1];
+			}
+		}
+
+		return mask;
+	}
+
+	private static long slidingAttacks(int square, long occupancy, int[][] deltas) {
+		long attacks = 0;
+
+		for (int[] delta : deltas) {
+			int file = square % 8 + delta[0];
+			int rank = square / 8 + delta[1];
+
+			while (Position.isValid(file, rank)) {
+				long bit = 1L << (file + rank * 8);
+				attacks |= bit;
+				if ((occupancy & bit) != 0) {
+					break;
+				}
+				file += delta[0];
+				rank += delta[1];
+			}
+		}
+
+		return attacks;
+	}
+
+	private static long stepAttacks(int square, int[][] deltas) {
+		long attacks = 0;
+
+		for (int[] delta : deltas) {
+			int file = square % 8 + delta[0];
+			int rank = square / 8 + delta[1];
+
+			if (Position.isValid(file, rank)) {
+				attacks |= 1L << (file + rank * 8);
+			}
+		}
+
+		return attacks;
+	}
+}
@@ -3,6 +3,7 @@ package schach.board.simple;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
 
 import schach.board.*;
 
@@ -11,20 +12,34 @@ import schach.board.*;
  * halfmoveClock
  */
 class BoardData implements IBoardData {
+	private static final PieceType[] pieceTypes = PieceType.values();
+
+	// Mailbox codes: 0 for an empty square, ordinal + 1 for white pieces and
+	// ordinal + 1 + blackOffset for black pieces
+	private static final int blackOffset = 6;
+
 	private long[] whitePieces;
 	private long[] blackPieces;
 	private long whitePiecesCombined;
 	private long blackPiecesCombined;
 	private long piecesCombined;
 
+	// Piece per square, kept in sync with the bitboards
+	private byte[] mailbox = new byte[64];
+
 	private BoardFlags flags;
 
+	// Zobrist hash, updated with every piece and flags change
+	private long hash;
+
 	BoardData() {
 		whitePieces = Consts.initialWhitePieces.clone();
 		blackPieces = Consts.initialBlackPieces.clone();
 		updateCombined();
+		updateMailbox();
 
 		flags = new BoardFlags();
+		hash = Zobrist.hash(this);
 	}
 
 	BoardData(Fen fen) throws BoardException {
@@ -33,7 +48,7 @@ class BoardData implements IBoardData {
 		blackPieces = zeros.clone();
 		for (int rank = 0; rank < 8; rank++) {
 			for (int file = 0; file < 8; file++) {
-				Position position = new Position(file, rank);
+				Position position = Position.of(file, rank);
 
 				PieceType whitePiece = fen.whitePieceAt(position);
 				if (whitePiece != null) {
@@ -49,16 +64,19 @@ class BoardData implements IBoardData {
 		updateCombined();
 
 		flags = new BoardFlags(fen.getFlags());
+		hash = Zobrist.hash(this);
 	}
 
-	private BoardData(BoardData boardData) {
+	BoardData(BoardData boardData) {
 		whitePieces = boardData.whitePieces.clone();
 		blackPieces = boardData.blackPieces.clone();
 		whitePiecesCombined = boardData.whitePiecesCombined;
 		blackPiecesCombined = boardData.blackPiecesCombined;
 		piecesCombined = boardData.piecesCombined;
+		mailbox = boardData.mailbox.clone();
 
 		flags = new BoardFlags(boardData.flags);
+		hash = boardData.hash;
 	}
 
 	@Override
@@ -66,16 +84,36 @@ class BoardData implements IBoardData {
 		return flags;
 	}
 
+	@Override
+	public long getZobristHash() {
+		return hash;
+	}
+
+	/**
+	 * Checks if both board data have the same position, i.e. the same pieces,
+	 * side to move, castle rights and en passant. The halfmoveClock is ignored.
+	 * 
+	 * @param other the other board data
+	 * @return whether the positions are the same
+	 */
+	boolean isSamePosition(BoardData other) {
+		return hash == other.hash && Arrays.equals(mailbox, other.mailbox)
+				&& flags.getSideToMove() == other.flags.getSideToMove()
+				&& flags.getCastleRights(Color.White) == other.flags.getCastleRights(Color.White)
+				&& flags.getCastleRights(Color.Black) == other.flags.getCastleRights(Color.Black)
+				&& Objects.equals(flags.getEnPassant(), other.flags.getEnPassant());
+	}
+
 	@Override
 	public boolean anyPieceAt(Position position) {
-		long pos = 1L << (position.getFile() + position.getRank() * 8);
+		long pos = 1L << position.getSquare();
 
 		return (piecesCombined & pos) != 0;
 	}
 
 	@Override
 	public boolean anyPieceAt(Position position, Color color) {
-		long pos = 1L << (position.getFile() + position.getRank() * 8);
+		long pos = 1L << position.getSquare();
 
 		if (color == Color.White) {
 			return (whitePiecesCombined & pos) != 0;
@@ -86,33 +124,59 @@ class BoardData implements IBoardData {
 
 	@Override
 	public PieceType pieceAt(Position position) {
-		PieceType whiteAt = pieceAt(position, Color.White);
-		if (whiteAt != null) {
-			return whiteAt;
+		return pieceAt(position.getSquare());
+	}
+
+	@Override
+	public PieceType pieceAt(Position position, Color color) {
+		return pieceAt(position.getSquare(), color);
+	}
+
+	@Override
+	public PieceType pieceAt(int square) {
+		int code = mailbox[square];
+		if (code == 0) {
+			return null;
 		}
 
-		return pieceAt(position, Color.Black);
+		return pieceTypes[(code - 1) % blackOffset];
 	}
 
 	@Override
-	public PieceType pieceAt(Position position, Color color) {
-		long pos = 1L << (position.getFile() + position.getRank() * 8);
+	public PieceType pieceAt(int square, Color color) {
+		int code = mailbox[square] - 1;
+		if (color == Color.Black) {
+			code -= blackOffset;
+		}
+
+		if (code < 0 || code >= blackOffset) {
+			return null;
+		}
 
+		return pieceTypes[code];
+	}
+
+	@Override
+	public long getPiecesCombined() {
+		return piecesCombined;
+	}
+
+	@Override
+	public long getPiecesCombined(Color color) {
 		if (color == Color.White) {
-			for (int i = 0; i < PieceType.values().length; i++) {
-				if ((whitePieces[i] & pos) != 0) {
-					return PieceType.values()[i];
-				}
-			}
+			return whitePiecesCombined;
 		} else {
-			for (int i = 0; i < PieceType.values().length; i++) {
-				if ((blackPieces[i] & pos) != 0) {
-					return PieceType.values()[i];
-				}
-			}
+			return blackPiecesCombined;
 		}
+	}
 
-		return null;
+	@Override
+	public long getPieces(PieceType pieceType, Color color) {
+		if (color == Color.White) {
+			return whitePieces[pieceType.ordinal()];
+		} else {
+			return blackPieces[pieceType.ordinal()];
+		}
 	}
 
 	@Override
@@ -127,37 +191,17 @@ class BoardData implements IBoardData {
 
 	@Override
 	public List<Position> getPositionsOf(PieceType pieceType, Color color) {
+		long bits = getPieces(pieceType, color);
+
 		// Fast path for king
 		if (pieceType == PieceType.King) {
-			long bits;
-			if (color == Color.White) {
-				bits = whitePieces[PieceType.King.ordinal()];
-			} else {
-				bits = blackPieces[PieceType.King.ordinal()];
-			}
-			int bitsNr = 63 - Long.numberOfLeadingZeros(bits);
-			int rank = bitsNr / 8;
-			int file = bitsNr % 8;
-			return Arrays.asList(new Position(file, rank));
+			return Arrays.asList(Position.of(63 - Long.numberOfLeadingZeros(bits)));
 		}
 
-		List<Position> positions = new ArrayList<Position>();
+		List<Position> positions = new ArrayList<Position>(Long.bitCount(bits));
 
-		for (int rank = 0; rank < 8; rank++) {
-			for (int file = 0; file < 8; file++) {
-				Position position = new Position(file, rank);
-				long pos = 1L << (position.getFile() + position.getRank() * 8);
-
-				if (color == Color.White) {
-					if ((whitePieces[pieceType.ordinal()] & pos) != 0) {
-						positions.add(position);
-					}
-				} else {
-					if ((blackPieces[pieceType.ordinal()] & pos) != 0) {
-						positions.add(position);
-					}
-				}
-			}
+		for (; bits != 0; bits &= bits - 1) {
+			positions.add(Position.of(Long.numberOfTrailingZeros(bits)));
 		}
 
 		return positions;
@@ -190,52 +234,70 @@ class BoardData implements IBoardData {
 	 * @return the piece type that was beaten if any
 	 * @throws BoardException throws if the given move is not allowed or invalid
 	 */
-	private PieceType applyPseudoValidMove(Move move) throws BoardException {
+	PieceType applyPseudoValidMove(Move move) throws BoardException {
+		return applyPseudoValidMove(PackedMove.fromMove(move));
+	}
+
+	/**
+	 * Applies the pseudo-valid packed move without further checking and update all
+	 * flags.
+	 * 
+	 * @param move the packed move
+	 * @return the piece type that was beaten if any
+	 * @throws BoardException throws if the given move is not allowed or invalid
+	 */
+	PieceType applyPseudoValidMove(int move) throws BoardException {
+		Color side = flags.getSideToMove();
+		int from = PackedMove.getFrom(move);
+		int to = PackedMove.getTo(move);
+
 		// Get piece
-		PieceType piece = pieceAt(move.getFrom(), flags.getSideToMove());
+		PieceType piece = pieceAt(from, side);
 
 		// Get beaten piece
-		PieceType beaten = pieceAt(move.getTo(), flags.getSideToMove().getInverted());
+		PieceType beaten = pieceAt(to, side.getInverted());
+
+		// Get promotion before anything is changed, since it might be invalid
+		boolean isPromotion = piece == PieceType.Pawn && to / 8 == BoardUtil.promotionRank(side);
+		PieceType promotion = isPromotion ? BoardUtil.asPromotion(PackedMove.getPromotion(move)) : null;
+
+		// The flags are changed below
+		hash ^= Zobrist.flagsKey(flags);
 
 		// Remove from and set to
-		removePieceAt(move.getFrom());
-		setPieceAt(move.getTo(), piece, flags.getSideToMove());
+		removePieceAt(from);
+		setPieceAt(to, piece, side);
 
 		// Pawn ...
 		if (piece == PieceType.Pawn) {
-			// Take enpassant?
-			if (move.getFrom().getFile() != move.getTo().getFile()) {
-				int otherRankInitial = BoardUtil.initialPawnRank(flags.getSideToMove().getInverted());
-				int otherRankDir = BoardUtil.pawnRankDir(flags.getSideToMove().getInverted());
-
-				if (move.getTo().getRank() == otherRankInitial + otherRankDir && beaten == null) {
-					removePieceAt(new Position(move.getTo().getFile(), otherRankInitial + otherRankDir * 2));
-					beaten = PieceType.Pawn;
-				}
+			// Take enpassant? A pawn moving diagonal to an empty square
+			if (from % 8 != to % 8 && beaten == null) {
+				removePieceAt(to % 8 + from / 8 * 8);
+				beaten = PieceType.Pawn;
 			}
 
 			// Apply promotion?
-			if (move.getTo().getRank() == BoardUtil.promotionRank(flags.getSideToMove())) {
-				setPieceAt(move.getTo(), BoardUtil.asPromotion(move.getPromotion()), flags.getSideToMove());
+			if (isPromotion) {
+				setPieceAt(to, promotion, side);
 			}
 		}
 
 		// Move rook if move is castle
 		if (piece == PieceType.King) {
-			if (move.getTo().getFile() - move.getFrom().getFile() == 2) {
-				removePieceAt(new Position(7, move.getFrom().getRank()));
-				setPieceAt(new Position(5, move.getFrom().getRank()), PieceType.Rook, flags.getSideToMove());
-			} else if (move.getTo().getFile() - move.getFrom().getFile() == -2) {
-				removePieceAt(new Position(0, move.getFrom().getRank()));
-				setPieceAt(new Position(3, move.getFrom().getRank()), PieceType.Rook, flags.getSideToMove());
+			if (to - from == 2) {
+				removePieceAt(from + 3);
+				setPieceAt(from + 1, PieceType.Rook, side);
+			} else if (to - from == -2) {
+				removePieceAt(from - 4);
+				setPieceAt(from - 1, PieceType.Rook, side);
 			}
 		}
 
 		// Update en passant
-		updateEnPassant(piece, move);
+		updateEnPassant(piece, from, to);
 
 		// Update castle rights
-		updateCastleRights(piece, beaten, move);
+		updateCastleRights(piece, beaten, from, to);
 
 		// Update halfmoveClock
 		updateHalfmoveClock(piece, beaten);
@@ -244,29 +306,111 @@ class BoardData implements IBoardData {
 		updateCombined();
 
 		// Update side to move
-		flags.setSideToMove(flags.getSideToMove().getInverted());
+		flags.setSideToMove(side.getInverted());
+
+		hash ^= Zobrist.flagsKey(flags);
 
 		return beaten;
 	}
 
-	private void updateEnPassant(PieceType pieceMoved, Move move) {
-		if (pieceMoved == PieceType.Pawn && Math.abs(move.getTo().getRank() - move.getFrom().getRank()) == 2) {
-			int rankInitial = BoardUtil.initialPawnRank(flags.getSideToMove());
-			int rankDir = BoardUtil.pawnRankDir(flags.getSideToMove());
+	/**
+	 * Passes the turn to the opponent without moving a piece, for null move
+	 * pruning. The en passant right is lost. Revert it with {@link #restoreFlags}.
+	 */
+	void applyNullMove() {
+		hash ^= Zobrist.flagsKey(flags);
+
+		flags.setSideToMove(flags.getSideToMove().getInverted());
+		flags.setEnPassant(null);
+		flags.setHalfmoveClock(flags.getHalfmoveClock() + 1);
+
+		hash ^= Zobrist.flagsKey(flags);
+	}
+
+	/**
+	 * Restores the flags to the state before a move, flipping the side to move
+	 * back. Has to be called before {@link #undoPseudoValidMove}.
+	 * 
+	 * @param castleRightsWhite the castle rights of white before the move
+	 * @param castleRightsBlack the castle rights of black before the move
+	 * @param enPassant         the en passant position before the move
+	 * @param halfmoveClock     the halfmoveClock before the move
+	 */
+	void restoreFlags(CastleRights castleRightsWhite, CastleRights castleRightsBlack, Position enPassant,
+			int halfmoveClock) {
+		hash ^= Zobrist.flagsKey(flags);
+
+		flags.setSideToMove(flags.getSideToMove().getInverted());
+		flags.setCastleRights(castleRightsWhite, Color.White);
+		flags.setCastleRights(castleRightsBlack, Color.Black);
+		flags.setEnPassant(enPassant);
+		flags.setHalfmoveClock(halfmoveClock);
+
+		hash ^= Zobrist.flagsKey(flags);
+	}
+
+	/**
+	 * Reverts a move applied by {@link #applyPseudoValidMove(int)}. The flags
+	 * (side to move, castle rights, en passant and halfmoveClock) have to be
+	 * restored to the state before the move with {@link #restoreFlags} already,
+	 * since only the pieces are reverted here.
+	 * 
+	 * @param move   the packed move that was applied
+	 * @param moved  the piece that was moved (a pawn in case of a promotion)
+	 * @param beaten the piece that was beaten by the move if any
+	 */
+	void undoPseudoValidMove(int move, PieceType moved, PieceType beaten) {
+		Color side = flags.getSideToMove();
+		int from = PackedMove.getFrom(move);
+		int to = PackedMove.getTo(move);
+
+		// Move rook back if move was castle
+		if (moved == PieceType.King) {
+			if (to - from == 2) {
+				removePieceAt(from + 1);
+				setPieceAt(from + 3, PieceType.Rook, side);
+			} else if (to - from == -2) {
+				removePieceAt(from - 1);
+				setPieceAt(from - 4, PieceType.Rook, side);
+			}
+		}
+
+		// Move piece back
+		removePieceAt(to);
+		setPieceAt(from, moved, side);
+
+		// Restore beaten piece
+		if (beaten != null) {
+			Position enPassant = flags.getEnPassant();
+			boolean isEnPassant = moved == PieceType.Pawn && enPassant != null && to == enPassant.getSquare();
+			if (isEnPassant) {
+				setPieceAt(to % 8 + from / 8 * 8, PieceType.Pawn, side.getInverted());
+			} else {
+				setPieceAt(to, beaten, side.getInverted());
+			}
+		}
+
+		// Update combined
+		updateCombined();
+	}
+
+	private void updateEnPassant(PieceType pieceMoved, int from, int to) {
+		if (pieceMoved == PieceType.Pawn && Math.abs(to - from) == 16) {
+			int square = (from + to) / 2;
 
-			flags.setEnPassant(new Position(move.getFrom().getFile(), rankInitial + rankDir));
+			flags.setEnPassant(Position.of(square));
 		} else {
 			flags.setEnPassant(null);
 		}
 	}
 
-	private void updateCastleRights(PieceType pieceMoved, PieceType pieceBeaten, Move move) {
+	private void updateCastleRights(PieceType pieceMoved, PieceType pieceBeaten, int from, int to) {
 		if (pieceBeaten == PieceType.Rook) {
 			int expectedRank = BoardUtil.promotionRank(flags.getSideToMove());
 
-			if (move.getTo().equals(new Position(0, expectedRank))) {
+			if (to == expectedRank * 8) {
 				flags.removeQueenSideCastleRight(flags.getSideToMove().getInverted());
-			} else if (move.getTo().equals(new Position(7, expectedRank))) {
+			} else if (to == 7 + expectedRank * 8) {
 				flags.removeKingSideCastleRight(flags.getSideToMove().getInverted());
 			}
 		} else if (pieceMoved == PieceType.King) {
@@ -274,9 +418,9 @@ class BoardData implements IBoardData {
 		} else if (pieceMoved == PieceType.Rook) {
 			int expectedRank = BoardUtil.promotionRank(flags.getSideToMove().getInverted());
 
-			if (move.getFrom().equals(new Position(0, expectedRank))) {
+			if (from == expectedRank * 8) {
 				flags.removeQueenSideCastleRight(flags.getSideToMove());
-			} else if (move.getFrom().equals(new Position(7, expectedRank))) {
+			} else if (from == 7 + expectedRank * 8) {
 				flags.removeKingSideCastleRight(flags.getSideToMove());
 			}
 		}
@@ -299,114 +443,69 @@ class BoardData implements IBoardData {
 	}
 
 	private void setPieceAt(Position position, PieceType pieceType, Color color) {
-		removePieceAt(position);
+		setPieceAt(position.getSquare(), pieceType, color);
+	}
+
+	private void setPieceAt(int square, PieceType pieceType, Color color) {
+		removePieceAt(square);
 
-		long pos = 1L << (position.getFile() + position.getRank() * 8);
+		long pos = 1L << square;
 
 		if (color == Color.White) {
 			whitePieces[pieceType.ordinal()] |= pos;
+			mailbox[square] = (byte) (pieceType.ordinal() + 1);
 		} else {
 			blackPieces[pieceType.ordinal()] |= pos;
+			mailbox[square] = (byte) (pieceType.ordinal() + 1 + blackOffset);
 		}
+		hash ^= Zobrist.pieceKey(pieceType, color, square);
 	}
 
-	private void removePieceAt(Position position) {
-		long pos = 1L << (position.getFile() + position.getRank() * 8);
-
-		for (int i = 0; i < PieceType.values().length; i++) {
-			whitePieces[i] &= ~pos;
-			blackPieces[i] &= ~pos;
+	private void removePieceAt(int square) {
+		int code = mailbox[square];
+		if (code == 0) {
+			return;
 		}
-	}
 
-	@Override
-	public boolean isPseudoAttacked(Position pos, Color attacker) {
-		return isPseudoAttackedByKnight(pos, attacker) || isPseudoAttackedByKing(pos, attacker)
-				|| isPseudoAttackedByPawn(pos, attacker) || isPseudoAttackedByStraightStepper(pos, attacker)
-				|| isPseudoAttackedByDiagonalStepper(pos, attacker);
-	}
+		long pos = 1L << square;
 
-	private boolean isPseudoAttackedByKnight(Position pos, Color attacker) {
-		for (Position p : BoardUtil.knightPossiblePositions(pos)) {
-			if (pieceAt(p, attacker) == PieceType.Knight) {
-				return true;
-			}
+		if (code <= blackOffset) {
+			whitePieces[code - 1] &= ~pos;
+			hash ^= Zobrist.pieceKey(pieceTypes[code - 1], Color.White, square);
+		} else {
+			blackPieces[code - 1 - blackOffset] &= ~pos;
+			hash ^= Zobrist.pieceKey(pieceTypes[code - 1 - blackOffset], Color.Black, square);
 		}
-
-		return false;
+		mailbox[square] = 0;
 	}
 
-	private boolean isPseudoAttackedByKing(Position pos, Color attacker) {
-		for (Position p : BoardUtil.kingPossiblePositions(pos)) {
-			if (pieceAt(p, attacker) == PieceType.King) {
-				return true;
+	private void updateMailbox() {
+		for (int i = 0; i < pieceTypes.length; i++) {
+			for (long bits = whitePieces[i]; bits != 0; bits &= bits - 1) {
+				mailbox[Long.numberOfTrailingZeros(bits)] = (byte) (i + 1);
+			}
+			for (long bits = blackPieces[i]; bits != 0; bits &= bits - 1) {
+				mailbox[Long.numberOfTrailingZeros(bits)] = (byte) (i + 1 + blackOffset);
 			}
 		}
-
-		return false;
-	}
-
-	private boolean isPseudoAttackedByPawn(Position pos, Color attacker) {
-		int pawnRankDir = BoardUtil.pawnRankDir(attacker);
-
-		boolean right = Position.isValid(pos.getFile() + 1, pos.getRank() - pawnRankDir)
-				&& pieceAt(new Position(pos.getFile() + 1, pos.getRank() - pawnRankDir), attacker) == PieceType.Pawn;
-		boolean left = Position.isValid(pos.getFile() - 1, pos.getRank() - pawnRankDir)
-				&& pieceAt(new Position(pos.getFile() - 1, pos.getRank() - pawnRankDir), attacker) == PieceType.Pawn;
-
-		return right || left;
-	}
-
-	private boolean isPseudoAttackedByStraightStepper(Position pos, Color attacker) {
-		return isPseudoAttackedByStepper(pos, attacker, true, new PositionDelta(1, 0))
-				|| isPseudoAttackedByStepper(pos, attacker, true, new PositionDelta(-1, 0))
-				|| isPseudoAttackedByStepper(pos, attacker, true, new PositionDelta(0, 1))
-				|| isPseudoAttackedByStepper(pos, attacker, true, new PositionDelta(0, -1));
 	}
 
-	private boolean isPseudoAttackedByDiagonalStepper(Position pos, Color attacker) {
-		return isPseudoAttackedByStepper(pos, attacker, false, new PositionDelta(1, 1))
-				|| isPseudoAttackedByStepper(pos, attacker, false, new PositionDelta(-1, 1))
-				|| isPseudoAttackedByStepper(pos, attacker, false, new PositionDelta(1, -1))
-				|| isPseudoAttackedByStepper(pos, attacker, false, new PositionDelta(-1, -1));
+	@Override
+	public boolean isPseudoAttacked(Position pos, Color attacker) {
+		return isPseudoAttacked(pos.getSquare(), attacker);
 	}
 
-	private boolean isPseudoAttackedByStepper(Position pos, Color attacker, boolean straight, PositionDelta delta) {
-		// Initial step
-		int rank = pos.getRank() + delta.getRankDelta();
-		int file = pos.getFile() + delta.getFileDelta();
-
-		// Loop
-		while (true) {
-			// Check invalid position
-			if (!Position.isValid(file, rank)) {
-				return false;
-			}
+	@Override
+	public boolean isPseudoAttacked(int square, Color attacker) {
+		long[] pieces = attacker == Color.White ? whitePieces : blackPieces;
 
-			// Check piece of opponent
-			if (anyPieceAt(new Position(file, rank), attacker.getInverted())) {
-				return false;
-			}
+		long straightAttackers = pieces[PieceType.Rook.ordinal()] | pieces[PieceType.Queen.ordinal()];
+		long diagonalAttackers = pieces[PieceType.Bishop.ordinal()] | pieces[PieceType.Queen.ordinal()];
 
-			// Check my piece
-			PieceType myPiece = pieceAt(new Position(file, rank), attacker);
-
-			if (myPiece != null) {
-				switch (myPiece) {
-				case Queen:
-					return true;
-				case Rook:
-					return straight;
-				case Bishop:
-					return !straight;
-				default:
-					return false;
-				}
-			}
-
-			// Next step
-			rank += delta.getRankDelta();
-			file += delta.getFileDelta();
-		}
+		return (BoardAttacks.knightAttacks(square) & pieces[PieceType.Knight.ordinal()]) != 0
+				|| (BoardAttacks.kingAttacks(square) & pieces[PieceType.King.ordinal()]) != 0
+				|| (BoardAttacks.pawnAttacks(attacker.getInverted(), square) & pieces[PieceType.Pawn.ordinal()]) != 0
+				|| (BoardAttacks.rookAttacks(square, piecesCombined) & straightAttackers) != 0
+				|| (BoardAttacks.bishopAttacks(square, piecesCombined) & diagonalAttackers) != 0;
 	}
 }
@@ -25,9 +25,8 @@ class BoardFlags {
 		sideToMove = boardFlags.sideToMove;
 		castleRightsWhite = boardFlags.castleRightsWhite;
 		castleRightsBlack = boardFlags.castleRightsBlack;
-		if (boardFlags.enPassant != null) {
-			enPassant = new Position(boardFlags.enPassant);
-		}
+		// Positions are immutable and can be shared
+		enPassant = boardFlags.enPassant;
 		halfmoveClock = boardFlags.halfmoveClock;
 	}
 
@@ -5,231 +5,413 @@ import java.util.List;
 import schach.board.*;
 
 /**
- * Pseudo move generator for a given board data
+ * Move generator for a given board data. It generates either pseudo legal
+ * moves or legal moves. For legal moves the checkers, pinned pieces and the
+ * squares attacked by the opponent are calculated once per position and the
+ * targets of every piece are masked with them, so no move has to be played to
+ * test it.
  */
 class BoardMoveGen {
-	private IBoardData data;
+	private static final PieceType[] promotions = { PieceType.Queen, PieceType.Rook, PieceType.Bishop,
+			PieceType.Knight };
 
-	private BoardMoveGen(IBoardData data) {
+	private IBoardData data;
+	private Color sideToMove;
+	private long own;
+	private long opponent;
+	private long occupied;
+	// Squares pieces may move to, the opponent's pieces when only generating captures
+	private long targets;
+	private boolean capturesOnly;
+
+	// Legality masks, these do not restrict anything for pseudo legal moves
+	private boolean legal;
+	private int kingSquare;
+	private long checkers;
+	private long checkMask = -1L;
+	private long pinned;
+	private long kingDanger;
+
+	private int[] moves;
+	private int count;
+
+	private BoardMoveGen(IBoardData data, int[] moves) {
 		this.data = data;
+		this.sideToMove = data.getFlags().getSideToMove();
+		this.own = data.getPiecesCombined(sideToMove);
+		this.opponent = data.getPiecesCombined(sideToMove.getInverted());
+		this.occupied = data.getPiecesCombined();
+		this.targets = ~own;
+		this.moves = moves;
 	}
 
 	/**
 	 * Calculate all moves that are pseudo legal. Pseudo legal moves are all moves
 	 * that are legal moves plus moves that are legal except leaving the own king in
 	 * check.
-	 * 
+	 *
 	 * @param data the board data to generate the moves for
 	 * @return all pseudo valid moves for the given board data
 	 */
 	static List<Move> genPseudoMoves(IBoardData data) {
-		BoardMoveGen moveGen = new BoardMoveGen(data);
-
-		List<Move> moves = new ArrayList<Move>();
+		int[] packedMoves = new int[PackedMove.maxMoves];
+		int count = genPseudoMoves(data, packedMoves);
 
-		for (int rank = 0; rank < 8; rank++) {
-			for (int file = 0; file < 8; file++) {
-				moves.addAll(moveGen.getValidMoves(new Position(file, rank)));
-			}
+		List<Move> moves = new ArrayList<Move>(count);
+		for (int i = 0; i < count; i++) {
+			moves.add(PackedMove.toMove(packedMoves[i]));
 		}
 
 		return moves;
 	}
 
-	private List<Move> getValidMoves(Position position) {
-		List<Move> moves = new ArrayList<Move>();
-		PieceType type = data.pieceAt(position, data.getFlags().getSideToMove());
-
-		if (type != null) {
-			switch (type) {
-			case Bishop:
-				moves.addAll(BoardUtil.getDiagonalMoves(data, data.getFlags().getSideToMove(), position));
-				break;
-			case King:
-				moves.addAll(getKingMoves(position));
-				break;
-			case Knight:
-				moves.addAll(getKnightMoves(position));
-				break;
-			case Pawn:
-				moves.addAll(getPawnMoves(position));
-				break;
-			case Queen:
-				moves.addAll(BoardUtil.getStraightMoves(data, data.getFlags().getSideToMove(), position));
-				moves.addAll(BoardUtil.getDiagonalMoves(data, data.getFlags().getSideToMove(), position));
-				break;
-			case Rook:
-				moves.addAll(BoardUtil.getStraightMoves(data, data.getFlags().getSideToMove(), position));
-				break;
-			}
+	/**
+	 * Calculate all moves that are pseudo legal as packed moves (see
+	 * {@link PackedMove}).
+	 *
+	 * @param data  the board data to generate the moves for
+	 * @param moves the buffer for the moves, has to hold at least
+	 *              {@link PackedMove#maxMoves} moves
+	 * @return the amount of moves written to the buffer
+	 */
+	static int genPseudoMoves(IBoardData data, int[] moves) {
+		BoardMoveGen moveGen = new BoardMoveGen(data, moves);
+
+		moveGen.genPawnMoves();
+		moveGen.genKnightMoves();
+		moveGen.genSliderMoves();
+		moveGen.genKingMoves();
+
+		return moveGen.count;
+	}
+
+	/**
+	 * Calculate all legal moves as packed moves (see {@link PackedMove}). The
+	 * board data has to contain a king of the side to move.
+	 *
+	 * @param data  the board data to generate the moves for
+	 * @param moves the buffer for the moves, has to hold at least
+	 *              {@link PackedMove#maxMoves} moves
+	 * @return the amount of moves written to the buffer
+	 */
+	static int genLegalMoves(IBoardData data, int[] moves) {
+		BoardMoveGen moveGen = new BoardMoveGen(data, moves);
+		moveGen.initLegality();
+
+		// Only the king can move in double check
+		if (Long.bitCount(moveGen.checkers) < 2) {
+			moveGen.genPawnMoves();
+			moveGen.genKnightMoves();
+			moveGen.genSliderMoves();
 		}
+		moveGen.genKingMoves();
 
-		return moves;
+		return moveGen.count;
 	}
 
-	private List<Move> getPawnMoves(Position pos) {
-		List<Move> moves = new ArrayList<Move>();
+	/**
+	 * Calculate the legal captures and promotions as packed moves (see
+	 * {@link PackedMove}), e.g. for a quiescence search. The board data has to
+	 * contain a king of the side to move.
+	 *
+	 * @param data  the board data to generate the moves for
+	 * @param moves the buffer for the moves, has to hold at least
+	 *              {@link PackedMove#maxMoves} moves
+	 * @return the amount of moves written to the buffer
+	 */
+	static int genLegalCaptures(IBoardData data, int[] moves) {
+		BoardMoveGen moveGen = new BoardMoveGen(data, moves);
+		moveGen.initLegality();
+		moveGen.capturesOnly = true;
+		moveGen.targets = moveGen.opponent;
+
+		if (Long.bitCount(moveGen.checkers) < 2) {
+			moveGen.genPawnMoves();
+			moveGen.genKnightMoves();
+			moveGen.genSliderMoves();
+		}
+		moveGen.genKingMoves();
 
-		moves.addAll(getPawnMovesStraight(pos));
-		moves.addAll(getPawnMovesDiagonal(pos));
-		moves.addAll(getPawnMovesEnPassant(pos));
+		return moveGen.count;
+	}
 
-		return moves;
+	/**
+	 * Checks if there is any legal move without generating all of them
+	 *
+	 * @param data the board data to check, has to contain a king of the side to
+	 *             move
+	 * @return whether the side to move has a legal move
+	 */
+	static boolean hasLegalMove(IBoardData data) {
+		// A buffer of one move stops adding moves after the first
+		BoardMoveGen moveGen = new BoardMoveGen(data, new int[1]);
+		moveGen.initLegality();
+
+		// The king has moves most of the time, so start with it
+		moveGen.genKingMoves();
+		if (moveGen.count == 0 && Long.bitCount(moveGen.checkers) < 2) {
+			moveGen.genKnightMoves();
+			moveGen.genSliderMoves();
+			moveGen.genPawnMoves();
+		}
+
+		return moveGen.count > 0;
 	}
 
-	private List<Move> getPawnMovesStraight(Position pos) {
-		List<Move> moves = new ArrayList<Move>();
+	/**
+	 * Checks if the king of the side to move is attacked
+	 *
+	 * @param data the board data to check, has to contain a king of the side to
+	 *             move
+	 * @return whether the side to move is in check
+	 */
+	static boolean isInCheck(IBoardData data) {
+		Color sideToMove = data.getFlags().getSideToMove();
+		long king = data.getPieces(PieceType.King, sideToMove);
 
-		int pawnRankDir = BoardUtil.pawnRankDir(data.getFlags().getSideToMove());
-		int initialPawnRank = BoardUtil.initialPawnRank(data.getFlags().getSideToMove());
+		return data.isPseudoAttacked(Long.numberOfTrailingZeros(king), sideToMove.getInverted());
+	}
 
-		// Advance by 1
-		Position advancedByOne = new Position(pos.getFile(), pos.getRank() + pawnRankDir);
-		if (!data.anyPieceAt(advancedByOne)) {
-			if (advancedByOne.getRank() == BoardUtil.promotionRank(data.getFlags().getSideToMove())) {
-				moves.add(new Move(pos, advancedByOne, PieceType.Queen));
-				moves.add(new Move(pos, advancedByOne, PieceType.Rook));
-				moves.add(new Move(pos, advancedByOne, PieceType.Bishop));
-				moves.add(new Move(pos, advancedByOne, PieceType.Knight));
-			} else {
-				moves.add(new Move(pos, advancedByOne));
-			}
+	private void initLegality() {
+		Color opponentColor = sideToMove.getInverted();
+		long king = data.getPieces(PieceType.King, sideToMove);
+		long opponentQueens = data.getPieces(PieceType.Queen, opponentColor);
+		long opponentStraight = data.getPieces(PieceType.Rook, opponentColor) | opponentQueens;
+		long opponentDiagonal = data.getPieces(PieceType.Bishop, opponentColor) | opponentQueens;
+
+		legal = true;
+		kingSquare = Long.numberOfTrailingZeros(king);
+
+		// Pieces giving check and the squares that resolve a single check
+		checkers = (BoardAttacks.knightAttacks(kingSquare) & data.getPieces(PieceType.Knight, opponentColor))
+				| (BoardAttacks.pawnAttacks(sideToMove, kingSquare) & data.getPieces(PieceType.Pawn, opponentColor))
+				| (BoardAttacks.rookAttacks(kingSquare, occupied) & opponentStraight)
+				| (BoardAttacks.bishopAttacks(kingSquare, occupied) & opponentDiagonal);
+		if (checkers != 0) {
+			checkMask = checkers | BoardAttacks.between(kingSquare, Long.numberOfTrailingZeros(checkers));
 		}
 
-		// Advance by 2
-		if (pos.getRank() == initialPawnRank
-				&& !data.anyPieceAt(new Position(pos.getFile(), pos.getRank() + pawnRankDir))
-				&& !data.anyPieceAt(new Position(pos.getFile(), pos.getRank() + pawnRankDir * 2))) {
-			moves.add(new Move(pos, new Position(pos.getFile(), pos.getRank() + pawnRankDir * 2)));
+		// Own pieces that are the only blocker between a slider and the king
+		long snipers = (BoardAttacks.rookAttacks(kingSquare, opponent) & opponentStraight)
+				| (BoardAttacks.bishopAttacks(kingSquare, opponent) & opponentDiagonal);
+		for (; snipers != 0; snipers &= snipers - 1) {
+			long blockers = BoardAttacks.between(kingSquare, Long.numberOfTrailingZeros(snipers)) & occupied;
+			if ((blockers & (blockers - 1)) == 0) {
+				pinned |= blockers & own;
+			}
 		}
 
-		return moves;
+		// The king must not hide behind itself from a slider
+		kingDanger = attackedSquares(opponentColor, occupied & ~king);
 	}
 
-	private List<Move> getPawnMovesDiagonal(Position pos) {
-		List<Move> moves = new ArrayList<Move>();
-
-		// dir
-		int pawnRankDir = BoardUtil.pawnRankDir(data.getFlags().getSideToMove());
-		// left and right
-		int[] fileDeltas = { -1, 1 };
+	private long attackedSquares(Color color, long occupancy) {
+		long queens = data.getPieces(PieceType.Queen, color);
+		long attacked = 0;
 
-		for (int fileDelta : fileDeltas) {
-			int file = pos.getFile() + fileDelta;
-			int rank = pos.getRank() + pawnRankDir;
+		for (long pawns = data.getPieces(PieceType.Pawn, color); pawns != 0; pawns &= pawns - 1) {
+			attacked |= BoardAttacks.pawnAttacks(color, Long.numberOfTrailingZeros(pawns));
+		}
+		for (long knights = data.getPieces(PieceType.Knight, color); knights != 0; knights &= knights - 1) {
+			attacked |= BoardAttacks.knightAttacks(Long.numberOfTrailingZeros(knights));
+		}
+		long diagonal = data.getPieces(PieceType.Bishop, color) | queens;
+		for (; diagonal != 0; diagonal &= diagonal - 1) {
+			attacked |= BoardAttacks.bishopAttacks(Long.numberOfTrailingZeros(diagonal), occupancy);
+		}
+		long straight = data.getPieces(PieceType.Rook, color) | queens;
+		for (; straight != 0; straight &= straight - 1) {
+			attacked |= BoardAttacks.rookAttacks(Long.numberOfTrailingZeros(straight), occupancy);
+		}
+		for (long kings = data.getPieces(PieceType.King, color); kings != 0; kings &= kings - 1) {
+			attacked |= BoardAttacks.kingAttacks(Long.numberOfTrailingZeros(kings));
+		}
 
-			if (!Position.isValid(file, rank)) {
-				continue;
-			}
+		return attacked;
+	}
 
-			Position to = new Position(file, rank);
-			if (data.anyPieceAt(to, data.getFlags().getSideToMove().getInverted())) {
-				if (rank == BoardUtil.promotionRank(data.getFlags().getSideToMove())) {
-					moves.add(new Move(pos, to, PieceType.Queen));
-					moves.add(new Move(pos, to, PieceType.Rook));
-					moves.add(new Move(pos, to, PieceType.Bishop));
-					moves.add(new Move(pos, to, PieceType.Knight));
-				} else {
-					moves.add(new Move(pos, to));
-				}
-			}
+	/**
+	 * @param from the square of the moving piece (not the king)
+	 * @return the squares the piece may move to without leaving the own king in
+	 *         check, ignoring the piece's own movement
+	 */
+	private long allowedTargets(int from) {
+		if ((pinned & 1L << from) != 0) {
+			return checkMask & BoardAttacks.line(kingSquare, from);
 		}
 
-		return moves;
+		return checkMask;
 	}
 
-	private List<Move> getPawnMovesEnPassant(Position pos) {
-		List<Move> moves = new ArrayList<Move>();
+	private boolean isEnPassantLegal(int from, int to) {
+		if (!legal) {
+			return true;
+		}
+
+		// The check has to be resolved by the move or the capture
+		int captured = to % 8 + from / 8 * 8;
+		if ((checkMask & (1L << to | 1L << captured)) == 0) {
+			return false;
+		}
+
+		// Both pawns leave the rank at once, so test for discovered slider attacks
+		Color opponentColor = sideToMove.getInverted();
+		long queens = data.getPieces(PieceType.Queen, opponentColor);
+		long occupancy = (occupied ^ 1L << from ^ 1L << captured) | 1L << to;
 
-		// dir
-		int pawnRankDir = BoardUtil.pawnRankDir(data.getFlags().getSideToMove());
-		// left and right
-		int[] fileDeltas = { -1, 1 };
+		return (BoardAttacks.rookAttacks(kingSquare, occupancy)
+				& (data.getPieces(PieceType.Rook, opponentColor) | queens)) == 0
+				&& (BoardAttacks.bishopAttacks(kingSquare, occupancy)
+						& (data.getPieces(PieceType.Bishop, opponentColor) | queens)) == 0;
+	}
 
-		for (int fileDelta : fileDeltas) {
-			int file = pos.getFile() + fileDelta;
-			int rank = pos.getRank() + pawnRankDir;
+	private void genPawnMoves() {
+		long pawns = data.getPieces(PieceType.Pawn, sideToMove);
+		int pawnRankDir = BoardUtil.pawnRankDir(sideToMove);
+		int initialPawnRank = BoardUtil.initialPawnRank(sideToMove);
+		int promotionRank = BoardUtil.promotionRank(sideToMove);
+		Position enPassant = data.getFlags().getEnPassant();
+		long enPassantBit = enPassant != null ? 1L << enPassant.getSquare() : 0;
+
+		for (; pawns != 0; pawns &= pawns - 1) {
+			int from = Long.numberOfTrailingZeros(pawns);
+			int advancedByOne = from + pawnRankDir * 8;
+			long allowed = allowedTargets(from);
+
+			// Advance by 1 and 2, only promotions of them count as captures
+			boolean promotes = advancedByOne / 8 == promotionRank;
+			if ((occupied & 1L << advancedByOne) == 0 && (promotes || !capturesOnly)) {
+				if ((allowed & 1L << advancedByOne) != 0) {
+					addPawnMove(from, advancedByOne, 0, promotionRank);
+				}
 
-			if (!Position.isValid(file, rank)) {
-				continue;
+				int advancedByTwo = advancedByOne + pawnRankDir * 8;
+				if (!capturesOnly && from / 8 == initialPawnRank && (occupied & 1L << advancedByTwo) == 0
+						&& (allowed & 1L << advancedByTwo) != 0) {
+					addMove(from, advancedByTwo, PackedMove.doublePawnPushFlag);
+				}
 			}
 
-			if (new Position(file, rank).equals(data.getFlags().getEnPassant())) {
-				moves.add(new Move(pos, data.getFlags().getEnPassant()));
+			// Beat diagonal and en passant
+			long attacks = BoardAttacks.pawnAttacks(sideToMove, from);
+			for (long targets = attacks & opponent & allowed; targets != 0; targets &= targets - 1) {
+				addPawnMove(from, Long.numberOfTrailingZeros(targets), PackedMove.captureFlag, promotionRank);
+			}
+			if ((attacks & enPassantBit) != 0 && isEnPassantLegal(from, Long.numberOfTrailingZeros(enPassantBit))) {
+				addMove(from, Long.numberOfTrailingZeros(enPassantBit),
+						PackedMove.captureFlag | PackedMove.enPassantFlag);
 			}
 		}
-
-		return moves;
 	}
 
-	private List<Move> getKnightMoves(Position pos) {
-		List<Move> moves = new ArrayList<Move>();
-
-		for (Position p : BoardUtil.knightPossiblePositions(pos)) {
-			if (!data.anyPieceAt(p, data.getFlags().getSideToMove())) {
-				moves.add(new Move(pos, p));
+	private void addPawnMove(int from, int to, int flags, int promotionRank) {
+		if (to / 8 == promotionRank) {
+			for (PieceType promotion : promotions) {
+				addMove(PackedMove.encode(from, to, promotion, flags));
 			}
+		} else {
+			addMove(from, to, flags);
 		}
+	}
 
-		return moves;
+	private void genKnightMoves() {
+		for (long knights = data.getPieces(PieceType.Knight, sideToMove); knights != 0; knights &= knights - 1) {
+			int from = Long.numberOfTrailingZeros(knights);
+			addMoves(from, BoardAttacks.knightAttacks(from) & allowedTargets(from));
+		}
 	}
 
-	private List<Move> getKingMoves(Position pos) {
-		List<Move> moves = new ArrayList<Move>();
+	private void genSliderMoves() {
+		long queens = data.getPieces(PieceType.Queen, sideToMove);
+		long straight = data.getPieces(PieceType.Rook, sideToMove) | queens;
+		long diagonal = data.getPieces(PieceType.Bishop, sideToMove) | queens;
 
-		moves.addAll(getKingMovesStandard(pos));
-		moves.addAll(getKingMovesCastle(pos));
+		for (; diagonal != 0; diagonal &= diagonal - 1) {
+			int from = Long.numberOfTrailingZeros(diagonal);
+			addMoves(from, BoardAttacks.bishopAttacks(from, occupied) & allowedTargets(from));
+		}
 
-		return moves;
+		for (; straight != 0; straight &= straight - 1) {
+			int from = Long.numberOfTrailingZeros(straight);
+			addMoves(from, BoardAttacks.rookAttacks(from, occupied) & allowedTargets(from));
+		}
 	}
 
-	private List<Move> getKingMovesStandard(Position pos) {
-		List<Move> moves = new ArrayList<Move>();
-
-		for (Position p : BoardUtil.kingPossiblePositions(pos)) {
-			if (!data.anyPieceAt(p, data.getFlags().getSideToMove())) {
-				moves.add(new Move(pos, p));
-			}
+	private void genKingMoves() {
+		long king = data.getPieces(PieceType.King, sideToMove);
+		if (king == 0) {
+			return;
 		}
 
-		return moves;
+		int from = Long.numberOfTrailingZeros(king);
+		addMoves(from, BoardAttacks.kingAttacks(from) & ~kingDanger);
+		if (checkers == 0 && !capturesOnly) {
+			genKingMovesCastle(from);
+		}
 	}
 
-	private List<Move> getKingMovesCastle(Position pos) {
-		List<Move> moves = new ArrayList<Move>();
-		CastleRights castleRights = data.getFlags().getCastleRights(data.getFlags().getSideToMove());
+	private void genKingMovesCastle(int from) {
+		CastleRights castleRights = data.getFlags().getCastleRights(sideToMove);
 
 		int rank;
-		if (data.getFlags().getSideToMove() == Color.White) {
+		if (sideToMove == Color.White) {
 			rank = 0;
 		} else {
 			rank = 7;
 		}
 
 		if (castleRights == CastleRights.KingSide || castleRights == CastleRights.Both) {
-			Position[] positions = { new Position(4, rank), new Position(5, rank), new Position(6, rank) };
-			if (canCastleOver(positions, data.getFlags().getSideToMove())) {
-				moves.add(new Move(pos, new Position(6, rank)));
+			int[] files = { 4, 5, 6 };
+			if (canCastleOver(files, rank)) {
+				addMove(from, 6 + rank * 8, PackedMove.castleFlag);
 			}
 		}
 		if (castleRights == CastleRights.QueenSide || castleRights == CastleRights.Both) {
-			Position[] positions = { new Position(4, rank), new Position(3, rank), new Position(2, rank) };
-			if (canCastleOver(positions, data.getFlags().getSideToMove())) {
-				moves.add(new Move(pos, new Position(2, rank)));
+			int[] files = { 4, 3, 2 };
+			// The rook passes the b-file as well, but it may be attacked
+			boolean rookPathFree = (occupied & 1L << (1 + rank * 8)) == 0;
+			if (rookPathFree && canCastleOver(files, rank)) {
+				addMove(from, 2 + rank * 8, PackedMove.castleFlag);
 			}
 		}
-
-		return moves;
 	}
 
-	private boolean canCastleOver(Position[] positions, Color sideToMove) {
-		for (Position pos : positions) {
-			boolean occupied = data.anyPieceAt(pos) && data.pieceAt(pos, sideToMove) != PieceType.King;
-			if (occupied || data.isPseudoAttacked(pos, sideToMove.getInverted())) {
+	private boolean canCastleOver(int[] files, int rank) {
+		long king = data.getPieces(PieceType.King, sideToMove);
+
+		for (int file : files) {
+			int square = file + rank * 8;
+			boolean occupied = (this.occupied & 1L << square & ~king) != 0;
+			if (occupied || isAttacked(square)) {
 				return false;
 			}
 		}
 
 		return true;
 	}
+
+	private boolean isAttacked(int square) {
+		if (legal) {
+			return (kingDanger & 1L << square) != 0;
+		}
+
+		return data.isPseudoAttacked(square, sideToMove.getInverted());
+	}
+
+	private void addMoves(int from, long attacks) {
+		for (long bits = attacks & targets; bits != 0; bits &= bits - 1) {
+			int to = Long.numberOfTrailingZeros(bits);
+			addMove(from, to, (opponent & 1L << to) != 0 ? PackedMove.captureFlag : 0);
+		}
+	}
+
+	private void addMove(int from, int to, int flags) {
+		addMove(PackedMove.encode(from, to, flags));
+	}
+
+	private void addMove(int move) {
+		if (count < moves.length) {
+			moves[count++] = move;
+		}
+	}
 }
@@ -0,0 +1,137 @@
+package schach.board.simple;
+
+import java.util.List;
+
+import schach.board.*;
+
+/**
+ * Calculates the status of a board data. This is shared by all board
+ * implementations, so they agree on check, mate and draw rules.
+ */
+class BoardStatusCalc {
+	private IBoardData data;
+
+	private BoardStatusCalc(IBoardData data) {
+		this.data = data;
+	}
+
+	/**
+	 * Calculate the status of the given board data
+	 *
+	 * @param data          the board data
+	 * @param hasValidMoves whether the side to move has any valid move
+	 * @return the status of the board data
+	 */
+	static BoardStatus calcStatus(IBoardData data, boolean hasValidMoves) {
+		BoardStatusCalc statusCalc = new BoardStatusCalc(data);
+		return statusCalc.calcStatus(hasValidMoves);
+	}
+
+	/**
+	 * Calculate the status of the given board data. Moves are only generated
+	 * until the first valid one is found.
+	 *
+	 * @param data the board data
+	 * @return the status of the board data
+	 */
+	static BoardStatus calcStatus(IBoardData data) {
+		if (data.getFlags().getHalfmoveClock() >= 50) {
+			// No need to look for moves
+			return BoardStatus.DrawByFiftyMoveRule;
+		}
+
+		return calcStatus(data, BoardMoveGen.hasLegalMove(data));
+	}
+
+	private BoardStatus calcStatus(boolean hasValidMoves) {
+		if (data.getFlags().getHalfmoveClock() >= 50) {
+			return BoardStatus.DrawByFiftyMoveRule;
+		}
+
+		// Calc Check
+		boolean isCheck = BoardMoveGen.isInCheck(data);
+
+		// Set Status
+		if (isCheck) {
+			if (!hasValidMoves) {
+				return BoardStatus.Checkmate;
+			} else {
+				return BoardStatus.Check;
+			}
+		} else {
+			if (!hasValidMoves) {
+				return BoardStatus.DrawByStalemate;
+			} else {
+				boolean sufficientMaterial = isSufficientMaterial();
+				if (sufficientMaterial) {
+					return BoardStatus.Ongoing;
+				} else {
+					return BoardStatus.DrawByInsufficientMaterial;
+				}
+			}
+		}
+	}
+
+	private boolean isSufficientMaterial() {
+		int whitePiecesCount = data.whitePiecesCount();
+		int blackPiecesCount = data.blackPiecesCount();
+
+		if (isKingVsKing(whitePiecesCount, blackPiecesCount)) {
+			return false;
+		}
+
+		if (isOneBishopOrKnight(whitePiecesCount, blackPiecesCount)) {
+			return false;
+		}
+
+		if (isKingsAndBishops(whitePiecesCount, blackPiecesCount)) {
+			return false;
+		}
+
+		final boolean sufficientMaterial = true;
+		return sufficientMaterial;
+	}
+
+	private boolean isKingVsKing(int whitePiecesCount, int blackPiecesCount) {
+		// King vs King
+		return whitePiecesCount == 1 && blackPiecesCount == 1;
+	}
+
+	private boolean isOneBishopOrKnight(int whitePiecesCount, int blackPiecesCount) {
+		// King+(Bishop/Knight) vs King
+		if (whitePiecesCount == 2 && blackPiecesCount == 1
+				&& (data.getPositionsOf(PieceType.Bishop, Color.White).size() == 1
+						|| data.getPositionsOf(PieceType.Knight, Color.White).size() == 1)) {
+			return true;
+		}
+
+		// King vs King+(Bishop/Knight)
+		if (whitePiecesCount == 1 && blackPiecesCount == 2
+				&& (data.getPositionsOf(PieceType.Bishop, Color.Black).size() == 1
+						|| data.getPositionsOf(PieceType.Knight, Color.Black).size() == 1)) {
+			return true;
+		}
+
+		final boolean oneBishopOrKnight = false;
+		return oneBishopOrKnight;
+	}
+
+	private boolean isKingsAndBishops(int whitePiecesCount, int blackPiecesCount) {
+		// King+Bishop vs King+Bishop (Bishops on same color)
+		if (whitePiecesCount == 2 && blackPiecesCount == 2) {
+			List<Position> positionsOfWhiteBishops = data.getPositionsOf(PieceType.Bishop, Color.White);
+			List<Position> positionsOfBlackBishops = data.getPositionsOf(PieceType.Bishop, Color.Black);
+			if (positionsOfWhiteBishops.size() == 1 && positionsOfBlackBishops.size() == 1) {
+				Position white = positionsOfWhiteBishops.get(0);
+				Position black = positionsOfWhiteBishops.get(0);
+				boolean onSameColor = (white.getRank() + white.getFile()) % 2 == (black.getRank() + black.getFile())
+						% 2;
+				if (onSameColor) {
+					return true;
+				}
+			}
+		}
+
+		return false;
+	}
+}
@@ -0,0 +1,74 @@
+package schach.board.simple;
+
+import java.util.Arrays;
+import java.util.List;
+
+import schach.board.*;
+
+/**
+ * Stack of the information needed to take back moves on a SearchBoard. The
+ * entries are reused, so pushing and popping does not allocate once the stack
+ * has reached the maximum depth.
+ */
+class BoardUndoStack {
+	private Entry[] entries = new Entry[64];
+	private int size;
+
+	/**
+	 * One taken back move
+	 */
+	static class Entry {
+		int move;
+		PieceType moved;
+		PieceType beaten;
+
+		CastleRights castleRightsWhite;
+		CastleRights castleRightsBlack;
+		Position enPassant;
+		int halfmoveClock;
+
+		List<Move> validMoves;
+		BoardStatus status;
+	}
+
+	/**
+	 * Push a new entry. The returned entry has to be filled by the caller.
+	 * 
+	 * @return the entry on top of the stack
+	 */
+	Entry push() {
+		if (size == entries.length) {
+			entries = Arrays.copyOf(entries, size * 2);
+		}
+
+		if (entries[size] == null) {
+			entries[size] = new Entry();
+		}
+
+		return entries[size++];
+	}
+
+	/**
+	 * Pop the entry on top of the stack. The entry stays valid until the next
+	 * push.
+	 * 
+	 * @return the popped entry
+	 */
+	Entry pop() {
+		return entries[--size];
+	}
+
+	/**
+	 * @return the entry on top of the stack, null if the stack is empty
+	 */
+	Entry peek() {
+		return size > 0 ? entries[size - 1] : null;
+	}
+
+	/**
+	 * @return whether the stack is empty
+	 */
+	boolean isEmpty() {
+		return size == 0;
+	}
+}
@@ -10,84 +10,42 @@ import schach.board.*;
  */
 class BoardUtil {
 	static List<Move> getStraightMoves(IBoardData data, Color sideToMove, Position pos) {
-		List<Move> moves = new ArrayList<Move>();
+		long attacks = BoardAttacks.rookAttacks(pos.getSquare(), data.getPiecesCombined());
 
-		// up
-		moves.addAll(stepper(data, sideToMove, pos, new PositionDelta(0, 1)));
-		// down
-		moves.addAll(stepper(data, sideToMove, pos, new PositionDelta(0, -1)));
-		// right
-		moves.addAll(stepper(data, sideToMove, pos, new PositionDelta(1, 0)));
-		// left
-		moves.addAll(stepper(data, sideToMove, pos, new PositionDelta(-1, 0)));
-
-		return moves;
+		return toMoves(pos, attacks & ~data.getPiecesCombined(sideToMove));
 	}
 
 	static List<Move> getDiagonalMoves(IBoardData data, Color sideToMove, Position pos) {
-		List<Move> moves = new ArrayList<Move>();
-
-		// up right
-		moves.addAll(stepper(data, sideToMove, pos, new PositionDelta(1, 1)));
-		// down right
-		moves.addAll(stepper(data, sideToMove, pos, new PositionDelta(1, -1)));
-		// up left
-		moves.addAll(stepper(data, sideToMove, pos, new PositionDelta(-1, 1)));
-		// bottom left
-		moves.addAll(stepper(data, sideToMove, pos, new PositionDelta(-1, -1)));
+		long attacks = BoardAttacks.bishopAttacks(pos.getSquare(), data.getPiecesCombined());
 
-		return moves;
+		return toMoves(pos, attacks & ~data.getPiecesCombined(sideToMove));
 	}
 
-	private static List<Move> stepper(IBoardData data, Color sideToMove, Position pos, PositionDelta delta) {
-		List<Move> moves = new ArrayList<Move>();
-
-		int rank = pos.getRank() + delta.getRankDelta();
-		int file = pos.getFile() + delta.getFileDelta();
-		while (true) {
-			if (!Position.isValid(file, rank)) {
-				break;
-			}
-
-			if (!data.anyPieceAt(new Position(file, rank), sideToMove)) {
-				moves.add(new Move(pos, new Position(file, rank)));
-				if (data.anyPieceAt(new Position(file, rank), sideToMove.getInverted())) {
-					break;
-				}
-			} else {
-				break;
-			}
-
-			rank += delta.getRankDelta();
-			file += delta.getFileDelta();
+	private static List<Move> toMoves(Position from, long targets) {
+		List<Move> moves = new ArrayList<Move>(Long.bitCount(targets));
+
+		while (targets != 0) {
+			int square = Long.numberOfTrailingZeros(targets);
+			moves.add(new Move(from, Position.of(square)));
+			targets &= targets - 1;
 		}
 
 		return moves;
 	}
 
 	static List<Position> kingPossiblePositions(Position pos) {
-		List<Position> positions = new ArrayList<Position>();
-
-		int[] rankPositions = { 1, 1, 0, -1, -1, -1, 0, 1 };
-		int[] filePositions = { 0, 1, 1, 1, 0, -1, -1, -1 };
-		for (int i = 0; i < 8; i++) {
-			if (Position.isValid(pos.getFile() + filePositions[i], pos.getRank() + rankPositions[i])) {
-				positions.add(new Position(pos.getFile() + filePositions[i], pos.getRank() + rankPositions[i]));
-			}
-		}
-
-		return positions;
+		return toPositions(BoardAttacks.kingAttacks(pos.getSquare()));
 	}
 
 	static List<Position> knightPossiblePositions(Position pos) {
-		List<Position> positions = new ArrayList<Position>();
-
-		int[] rankPositions = { 2, 1, -1, -2, -2, -1, 1, 2 };
-		int[] filePositions = { 1, 2, 2, 1, -1, -2, -2, -1 };
-		for (int i = 0; i < 8; i++) {
-			if (Position.isValid(pos.getFile() + filePositions[i], pos.getRank() + rankPositions[i])) {
-				positions.add(new Position(pos.getFile() + filePositions[i], pos.getRank() + rankPositions[i]));
-			}
+		return toPositions(BoardAttacks.knightAttacks(pos.getSquare()));
+	}
+
+	private static List<Position> toPositions(long squares) {
+		List<Position> positions = new ArrayList<Position>(Long.bitCount(squares));
+
+		for (; squares != 0; squares &= squares - 1) {
+			positions.add(Position.of(Long.numberOfTrailingZeros(squares)));
 		}
 
 		return positions;
@@ -79,10 +79,10 @@ class Fen {
 		PieceType asBlackPiece = parseAsBlackPiece(c);
 
 		if (asWhitePiece != null) {
-			whitePieces.put(new Position(file, rank), asWhitePiece);
+			whitePieces.put(Position.of(file, rank), asWhitePiece);
 			return 1;
 		} else if (asBlackPiece != null) {
-			blackPieces.put(new Position(file, rank), asBlackPiece);
+			blackPieces.put(Position.of(file, rank), asBlackPiece);
 			return 1;
 		} else {
 			int nr;
@@ -196,7 +196,7 @@ class Fen {
 			int rank = (fenEnPassantPart.charAt(1) - '0') - 1;
 
 			if (Position.isValid(file, rank)) {
-				flags.setEnPassant(new Position(file, rank));
+				flags.setEnPassant(Position.of(file, rank));
 			} else {
 				throw new BoardException(errorMessage);
 			}
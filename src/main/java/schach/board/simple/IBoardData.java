@@ -13,6 +13,12 @@ interface IBoardData {
 	 */
 	BoardFlags getFlags();
 
+	/**
+	 * @return the Zobrist hash of the position (pieces, side to move, castle
+	 *         rights and en passant)
+	 */
+	long getZobristHash();
+
 	/**
 	 * Tests if any piece is at the given position
 	 * 
@@ -47,6 +53,41 @@ interface IBoardData {
 	 */
 	PieceType pieceAt(Position position, Color color);
 
+	/**
+	 * Tests if a piece is at the given square
+	 * 
+	 * @param square the square index (file + rank * 8) to check for a piece
+	 * @return piece at the given square. null if no piece
+	 */
+	PieceType pieceAt(int square);
+
+	/**
+	 * Tests if a piece of one color is at the given square
+	 * 
+	 * @param square the square index (file + rank * 8) to check for a piece
+	 * @param color  the color to check for
+	 * @return piece with the given color at the given square. null if no piece
+	 */
+	PieceType pieceAt(int square, Color color);
+
+	/**
+	 * @return a bitboard of all pieces
+	 */
+	long getPiecesCombined();
+
+	/**
+	 * @param color the color to get the pieces for
+	 * @return a bitboard of all pieces with the given color
+	 */
+	long getPiecesCombined(Color color);
+
+	/**
+	 * @param pieceType the piece to get the bitboard for
+	 * @param color     the color to get the bitboard for
+	 * @return a bitboard of all pieces with the given type and color
+	 */
+	long getPieces(PieceType pieceType, Color color);
+
 	/**
 	 * @return the amount of white pieces
 	 */
@@ -86,4 +127,13 @@ interface IBoardData {
 	 * @return whether the given position is pseudo attacked by the given color
 	 */
 	boolean isPseudoAttacked(Position position, Color attacker);
+
+	/**
+	 * Checks if a square is pseudo attacked by one side.
+	 * 
+	 * @param square   the square index (file + rank * 8) to check for
+	 * @param attacker the color of the attacker
+	 * @return whether the given square is pseudo attacked by the given color
+	 */
+	boolean isPseudoAttacked(int square, Color attacker);
 }
@@ -0,0 +1,126 @@
+package schach.board.simple;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import schach.board.*;
+
+/**
+ * Perft counts all leaf nodes of the move tree up to a given depth. The counts
+ * can be compared to known values to validate the move generator, and the time
+ * taken measures its throughput. Draw rules are ignored, like in the usual
+ * perft definition.
+ */
+public class Perft {
+	private ForkJoinPool pool;
+
+	/**
+	 * Creates a perft that splits the root moves across the common pool
+	 */
+	public Perft() {
+		this(ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Creates a perft that splits the root moves across the given pool
+	 *
+	 * @param pool the pool to run the root moves in
+	 */
+	public Perft(ForkJoinPool pool) {
+		this.pool = pool;
+	}
+
+	/**
+	 * Count the leaf nodes of a board
+	 *
+	 * @param board the board to start from, has to be a {@link Board} or
+	 *              {@link SearchBoard}
+	 * @param depth the depth in plies
+	 * @return the amount of leaf nodes at the given depth
+	 */
+	public long perft(IBoard board, int depth) {
+		if (depth == 0) {
+			return 1;
+		}
+
+		long nodes = 0;
+		for (long count : divide(board, depth).values()) {
+			nodes += count;
+		}
+
+		return nodes;
+	}
+
+	/**
+	 * Count the leaf nodes below each root move
+	 *
+	 * @param board the board to start from, has to be a {@link Board} or
+	 *              {@link SearchBoard}
+	 * @param depth the depth in plies, at least 1
+	 * @return the amount of leaf nodes per root move, in move generator order
+	 */
+	public Map<Move, Long> divide(IBoard board, int depth) {
+		SearchBoard root = new SearchBoard(board);
+		int[] moves = new int[PackedMove.maxMoves];
+		int count = root.genLegalMoves(moves);
+
+		List<ForkJoinTask<Long>> tasks = new ArrayList<ForkJoinTask<Long>>(count);
+		for (int i = 0; i < count; i++) {
+			int move = moves[i];
+			tasks.add(pool.submit(() -> perftMove(root, move, depth)));
+		}
+
+		Map<Move, Long> result = new LinkedHashMap<Move, Long>();
+		for (int i = 0; i < count; i++) {
+			result.put(PackedMove.toMove(moves[i]), tasks.get(i).join());
+		}
+
+		return result;
+	}
+
+	private static long perftMove(SearchBoard root, int move, int depth) {
+		// Every task works on its own copy
+		SearchBoard board = new SearchBoard(root);
+		int[][] buffers = new int[depth][PackedMove.maxMoves];
+
+		try {
+			board.makeMove(move);
+		} catch (BoardException e) {
+			// Legal moves are always valid
+			throw new IllegalStateException(e);
+		}
+
+		return perft(board, depth - 1, buffers);
+	}
+
+	private static long perft(SearchBoard board, int depth, int[][] buffers) {
+		if (depth == 0) {
+			return 1;
+		}
+
+		int[] moves = buffers[depth];
+		int count = board.genLegalMoves(moves);
+
+		// Bulk counting: the moves of the last ply are the leaf nodes
+		if (depth == 1) {
+			return count;
+		}
+
+		long nodes = 0;
+		for (int i = 0; i < count; i++) {
+			try {
+				board.makeMove(moves[i]);
+			} catch (BoardException e) {
+				throw new IllegalStateException(e);
+			}
+			nodes += perft(board, depth - 1, buffers);
+			board.unmakeMove();
+		}
+
+		return nodes;
+	}
+}
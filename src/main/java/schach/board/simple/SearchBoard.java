@@ -0,0 +1,312 @@
+package schach.board.simple;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import schach.board.*;
+
+/**
+ * Mutable board for searching. Moves are played with {@link #makeMove(Move)}
+ * and taken back with {@link #unmakeMove()}, so walking a game tree does not
+ * create a new board per node. It uses the same BoardData as {@link Board},
+ * which stays the immutable board for the GUI and the game.
+ */
+public class SearchBoard implements IBoard {
+	private BoardData data;
+	private BoardUndoStack undoStack = new BoardUndoStack();
+	// The swap list of the static exchange evaluation, so it is not allocated per
+	// call
+	private final int[] exchangeGain = new int[StaticExchange.maxExchange];
+
+	private List<Move> validMoves;
+	private BoardStatus status;
+
+	/**
+	 * Creates a new search board in the position of the given board
+	 *
+	 * @param board the board to copy. Has to be a {@link Board} or
+	 *              {@link SearchBoard}
+	 */
+	public SearchBoard(IBoard board) {
+		if (board instanceof Board) {
+			data = new BoardData(((Board) board).getData());
+		} else if (board instanceof SearchBoard) {
+			data = new BoardData(((SearchBoard) board).data);
+		} else {
+			throw new IllegalArgumentException("Unsupported board implementation");
+		}
+	}
+
+	/**
+	 * Plays a move on this board. The move has to be one of
+	 * {@link #getValidMoves()}, otherwise the board can end up in an invalid
+	 * state.
+	 *
+	 * @param move the move to be played
+	 * @return the beaten piece if any
+	 * @throws BoardException throws if the move has an invalid promotion
+	 */
+	public PieceType makeMove(Move move) throws BoardException {
+		return makeMove(PackedMove.fromMove(move));
+	}
+
+	/**
+	 * Plays a packed move on this board. The move has to be one of
+	 * {@link #getValidMoves(int[])}, otherwise the board can end up in an invalid
+	 * state.
+	 *
+	 * @param move the packed move to be played
+	 * @return the beaten piece if any
+	 * @throws BoardException throws if the move has an invalid promotion
+	 */
+	public PieceType makeMove(int move) throws BoardException {
+		PieceType moved = data.pieceAt(PackedMove.getFrom(move), getSideToMove());
+		BoardUndoStack.Entry entry = undoStack.push();
+		saveFlags(entry);
+
+		try {
+			entry.beaten = data.applyPseudoValidMove(move);
+		} catch (BoardException e) {
+			// Nothing has been changed
+			undoStack.pop();
+			throw e;
+		}
+
+		entry.move = move;
+		entry.moved = moved;
+		entry.validMoves = validMoves;
+		entry.status = status;
+		validMoves = null;
+		status = null;
+
+		return entry.beaten;
+	}
+
+	/**
+	 * Passes the turn to the opponent without moving a piece, for null move
+	 * pruning. The side to move must not be in check. Take it back with
+	 * {@link #unmakeMove()}.
+	 */
+	public void makeNullMove() {
+		BoardUndoStack.Entry entry = undoStack.push();
+		saveFlags(entry);
+
+		data.applyNullMove();
+
+		entry.move = 0;
+		entry.moved = null;
+		entry.beaten = null;
+		entry.validMoves = validMoves;
+		entry.status = status;
+		validMoves = null;
+		status = null;
+	}
+
+	/**
+	 * Takes back the last move played with {@link #makeMove(Move)} or
+	 * {@link #makeNullMove()}
+	 *
+	 * @throws IllegalStateException throws if no move was played on this board
+	 */
+	public void unmakeMove() {
+		if (undoStack.isEmpty()) {
+			throw new IllegalStateException("No move to take back");
+		}
+
+		BoardUndoStack.Entry entry = undoStack.pop();
+
+		data.restoreFlags(entry.castleRightsWhite, entry.castleRightsBlack, entry.enPassant, entry.halfmoveClock);
+		if (entry.move != 0) {
+			data.undoPseudoValidMove(entry.move, entry.moved, entry.beaten);
+		}
+
+		validMoves = entry.validMoves;
+		status = entry.status;
+	}
+
+	/**
+	 * @return the last move played with {@link #makeMove(int)} as packed move, 0
+	 *         if there is none or it was a null move
+	 */
+	public int getLastMove() {
+		BoardUndoStack.Entry entry = undoStack.peek();
+		return entry != null ? entry.move : 0;
+	}
+
+	/**
+	 * Static exchange evaluation of a move: the material outcome of all captures
+	 * on its target square, with x-rays, as long as they pay off for the capturing
+	 * side
+	 *
+	 * @param move   the packed move of the side to move, a capture or a quiet move
+	 * @param values the value of every piece type, indexed by its ordinal
+	 * @return the material the side to move wins, negative if it loses material
+	 */
+	public int staticExchange(int move, int[] values) {
+		return StaticExchange.evaluate(data, move, values, exchangeGain);
+	}
+
+	/**
+	 * @param color the color of the pieces
+	 * @return whether the color has any piece besides pawns and the king. Without
+	 *         such pieces zugzwang is common.
+	 */
+	public boolean hasNonPawnMaterial(Color color) {
+		long pawnsAndKing = data.getPieces(PieceType.Pawn, color) | data.getPieces(PieceType.King, color);
+		return (data.getPiecesCombined(color) & ~pawnsAndKing) != 0;
+	}
+
+	@Override
+	public BoardResult move(Move move) throws BoardException {
+		// Check move is in validMoves
+		if (!getValidMoves().contains(move)) {
+			throw new BoardException("Invalid move");
+		}
+
+		// The move is legal, so it can be applied to a copy without further checks
+		BoardData dataNew = new BoardData(data);
+		PieceType beaten = dataNew.applyPseudoValidMove(move);
+
+		return new BoardResult(new Board(dataNew), beaten);
+	}
+
+	@Override
+	public List<Move> getValidMoves() {
+		if (validMoves == null) {
+			calcValidMovesAndStatus();
+		}
+
+		return Collections.unmodifiableList(validMoves);
+	}
+
+	@Override
+	public List<Move> getValidMoves(Position position) {
+		ArrayList<Move> moves = new ArrayList<Move>();
+
+		for (Move validMove : getValidMoves()) {
+			if (validMove.getFrom().equals(position)) {
+				moves.add(validMove);
+			}
+		}
+
+		return Collections.unmodifiableList(moves);
+	}
+
+	@Override
+	public BoardStatus getStatus() {
+		if (status == null) {
+			status = BoardStatusCalc.calcStatus(data);
+		}
+
+		return status;
+	}
+
+	@Override
+	public boolean isInCheck() {
+		return BoardMoveGen.isInCheck(data);
+	}
+
+	@Override
+	public boolean hasAnyValidMove() {
+		return !getStatus().isOver();
+	}
+
+	@Override
+	public Color getSideToMove() {
+		return data.getFlags().getSideToMove();
+	}
+
+	@Override
+	public PieceType pieceAt(Position position) {
+		return data.pieceAt(position);
+	}
+
+	@Override
+	public PieceType pieceAt(Position position, Color color) {
+		return data.pieceAt(position, color);
+	}
+
+	@Override
+	public PieceType pieceAt(int square) {
+		return data.pieceAt(square);
+	}
+
+	@Override
+	public PieceType pieceAt(int square, Color color) {
+		return data.pieceAt(square, color);
+	}
+
+	@Override
+	public long getZobristHash() {
+		return data.getZobristHash();
+	}
+
+	@Override
+	public CastleRights getCastleRights(Color color) {
+		return data.getFlags().getCastleRights(color);
+	}
+
+	@Override
+	public Position getKingPosition(Color color) {
+		return data.getPositionsOf(PieceType.King, color).get(0);
+	}
+
+	@Override
+	public int getValidMoves(int[] moves) {
+		int validCount = BoardMoveGen.genLegalMoves(data, moves);
+
+		if (status == null) {
+			status = BoardStatusCalc.calcStatus(data, validCount > 0);
+		}
+
+		if (status == BoardStatus.DrawByFiftyMoveRule || status == BoardStatus.DrawByInsufficientMaterial) {
+			// No moves after a draw
+			return 0;
+		}
+
+		return validCount;
+	}
+
+	/**
+	 * Generates only the legal captures and promotions, e.g. for a quiescence
+	 * search. Draw rules are ignored, so check {@link #getStatus()} first.
+	 *
+	 * @param moves the buffer to fill with the packed moves, has to hold at least
+	 *              {@link PackedMove#maxMoves} moves
+	 * @return the amount of moves written to the buffer
+	 */
+	public int getCaptureMoves(int[] moves) {
+		return BoardMoveGen.genLegalCaptures(data, moves);
+	}
+
+	/**
+	 * Generates the legal moves ignoring draw rules, unlike
+	 * {@link #getValidMoves(int[])}, which returns no moves after a draw
+	 *
+	 * @param moves the buffer to fill with the packed moves
+	 * @return the amount of moves written to the buffer
+	 */
+	int genLegalMoves(int[] moves) {
+		return BoardMoveGen.genLegalMoves(data, moves);
+	}
+
+	private void calcValidMovesAndStatus() {
+		int[] packedMoves = new int[PackedMove.maxMoves];
+		int count = getValidMoves(packedMoves);
+
+		List<Move> moves = new ArrayList<Move>(count);
+		for (int i = 0; i < count; i++) {
+			moves.add(PackedMove.toMove(packedMoves[i]));
+		}
+		validMoves = moves;
+	}
+
+	private void saveFlags(BoardUndoStack.Entry entry) {
+		BoardFlags flags = data.getFlags();
+		entry.castleRightsWhite = flags.getCastleRights(Color.White);
+		entry.castleRightsBlack = flags.getCastleRights(Color.Black);
+		entry.enPassant = flags.getEnPassant();
+		entry.halfmoveClock = flags.getHalfmoveClock();
+	}
+}
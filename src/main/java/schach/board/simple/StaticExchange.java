@@ -0,0 +1,130 @@
+package schach.board.simple;
+
+import schach.board.*;
+
+/**
+ * Static exchange evaluation calculates the material outcome of all captures
+ * on the target square of a move, without playing them. Both sides capture
+ * with their least valuable piece first and may stop capturing when it does
+ * not pay off. Sliders behind a capturing piece (x-rays) join the exchange
+ * once the piece has left. Pins and checks are ignored.
+ */
+final class StaticExchange {
+	// The longest possible exchange: every piece captures once
+	static final int maxExchange = 32;
+
+	private static final PieceType[] leastValuableFirst = { PieceType.Pawn, PieceType.Knight, PieceType.Bishop,
+			PieceType.Rook, PieceType.Queen, PieceType.King };
+
+	private StaticExchange() {
+	}
+
+	/**
+	 * Evaluate the exchange started by a move
+	 *
+	 * @param data   the board data before the move
+	 * @param move   the packed move, a capture or a quiet move
+	 * @param values the value of every piece type, indexed by ordinal
+	 * @param gain   the swap list, reused between calls. Needs a length of at
+	 *               least {@link #maxExchange}
+	 * @return the material the side to move wins, negative if it loses material
+	 */
+	static int evaluate(IBoardData data, int move, int[] values, int[] gain) {
+		int from = PackedMove.getFrom(move);
+		int to = PackedMove.getTo(move);
+		Color side = data.getFlags().getSideToMove();
+		PieceType promotion = PackedMove.getPromotion(move);
+
+		long occupancy = data.getPiecesCombined() ^ 1L << from;
+
+		if (PackedMove.isEnPassant(move)) {
+			occupancy ^= 1L << (to % 8 + from / 8 * 8);
+			gain[0] = values[PieceType.Pawn.ordinal()];
+		} else {
+			PieceType captured = data.pieceAt(to, side.getInverted());
+			gain[0] = captured != null ? values[captured.ordinal()] : 0;
+		}
+
+		// The value of the piece that stands on the square and can be captured next
+		PieceType attacker = data.pieceAt(from, side);
+		int onSquare = values[attacker.ordinal()];
+		if (promotion != null) {
+			gain[0] += values[promotion.ordinal()] - values[PieceType.Pawn.ordinal()];
+			onSquare = values[promotion.ordinal()];
+		}
+
+		long diagonal = data.getPieces(PieceType.Bishop, Color.White) | data.getPieces(PieceType.Bishop, Color.Black)
+				| data.getPieces(PieceType.Queen, Color.White) | data.getPieces(PieceType.Queen, Color.Black);
+		long straight = data.getPieces(PieceType.Rook, Color.White) | data.getPieces(PieceType.Rook, Color.Black)
+				| data.getPieces(PieceType.Queen, Color.White) | data.getPieces(PieceType.Queen, Color.Black);
+		long attackers = attackersTo(data, to, occupancy) & occupancy;
+
+		Color toMove = side.getInverted();
+		int depth = 0;
+		while (depth + 1 < maxExchange) {
+			long ownAttackers = attackers & data.getPiecesCombined(toMove);
+			if (ownAttackers == 0) {
+				break;
+			}
+
+			PieceType capturer = null;
+			long capturerBit = 0;
+			for (PieceType pieceType : leastValuableFirst) {
+				long pieces = ownAttackers & data.getPieces(pieceType, toMove);
+				if (pieces != 0) {
+					capturer = pieceType;
+					capturerBit = pieces & -pieces;
+					break;
+				}
+			}
+
+			// The king may only capture if the square is not defended anymore
+			if (capturer == PieceType.King && (attackers & data.getPiecesCombined(toMove.getInverted())) != 0) {
+				break;
+			}
+
+			depth++;
+			gain[depth] = onSquare - gain[depth - 1];
+			onSquare = values[capturer.ordinal()];
+
+			// Sliders behind the capturing piece attack the square now
+			occupancy ^= capturerBit;
+			if (capturer == PieceType.Pawn || capturer == PieceType.Bishop || capturer == PieceType.Queen) {
+				attackers |= BoardAttacks.bishopAttacks(to, occupancy) & diagonal;
+			}
+			if (capturer == PieceType.Rook || capturer == PieceType.Queen) {
+				attackers |= BoardAttacks.rookAttacks(to, occupancy) & straight;
+			}
+			attackers &= occupancy;
+
+			toMove = toMove.getInverted();
+		}
+
+		// Every side stops capturing if that is better than going on
+		for (; depth > 0; depth--) {
+			gain[depth - 1] = -Math.max(-gain[depth - 1], gain[depth]);
+		}
+
+		return gain[0];
+	}
+
+	/**
+	 * @param data      the board data
+	 * @param square    the attacked square
+	 * @param occupancy the occupied squares that block sliders
+	 * @return the pieces of both colors that attack the square
+	 */
+	static long attackersTo(IBoardData data, int square, long occupancy) {
+		long queens = data.getPieces(PieceType.Queen, Color.White) | data.getPieces(PieceType.Queen, Color.Black);
+		long rooks = data.getPieces(PieceType.Rook, Color.White) | data.getPieces(PieceType.Rook, Color.Black);
+		long bishops = data.getPieces(PieceType.Bishop, Color.White) | data.getPieces(PieceType.Bishop, Color.Black);
+		long knights = data.getPieces(PieceType.Knight, Color.White) | data.getPieces(PieceType.Knight, Color.Black);
+		long kings = data.getPieces(PieceType.King, Color.White) | data.getPieces(PieceType.King, Color.Black);
+
+		return (BoardAttacks.pawnAttacks(Color.Black, square) & data.getPieces(PieceType.Pawn, Color.White))
+				| (BoardAttacks.pawnAttacks(Color.White, square) & data.getPieces(PieceType.Pawn, Color.Black))
+				| (BoardAttacks.knightAttacks(square) & knights) | (BoardAttacks.kingAttacks(square) & kings)
+				| (BoardAttacks.rookAttacks(square, occupancy) & (rooks | queens))
+				| (BoardAttacks.bishopAttacks(square, occupancy) & (bishops | queens));
+	}
+}
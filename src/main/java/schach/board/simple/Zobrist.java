@@ -0,0 +1,91 @@
+package schach.board.simple;
+
+import java.util.Random;
+
+import schach.board.*;
+
+/**
+ * Zobrist keys to hash a position. The hash of a position is the XOR of the
+ * keys of all pieces on their squares, the side to move, the castle rights and
+ * the en passant file. Since XOR is its own inverse, the hash can be updated
+ * incrementally while moves are applied and reverted.
+ */
+final class Zobrist {
+	// Fixed seed, so hashes are the same in every run
+	private static final long seed = 0x2B7E151628AED2A6L;
+
+	private static final long[][][] pieceKeys = new long[2][6][64];
+	private static final long[][] castleKeys = new long[2][4];
+	private static final long[] enPassantKeys = new long[8];
+	private static final long sideKey;
+
+	static {
+		Random random = new Random(seed);
+
+		for (int color = 0; color < 2; color++) {
+			for (int piece = 0; piece < 6; piece++) {
+				for (int square = 0; square < 64; square++) {
+					pieceKeys[color][piece][square] = random.nextLong();
+				}
+			}
+			for (int castleRights = 0; castleRights < 4; castleRights++) {
+				castleKeys[color][castleRights] = random.nextLong();
+			}
+		}
+		for (int file = 0; file < 8; file++) {
+			enPassantKeys[file] = random.nextLong();
+		}
+		sideKey = random.nextLong();
+	}
+
+	private Zobrist() {
+	}
+
+	/**
+	 * @param pieceType the piece
+	 * @param color     the color of the piece
+	 * @param square    the square of the piece
+	 * @return the key of a piece on a square
+	 */
+	static long pieceKey(PieceType pieceType, Color color, int square) {
+		return pieceKeys[color.ordinal()][pieceType.ordinal()][square];
+	}
+
+	/**
+	 * @param flags the flags
+	 * @return the combined key of side to move, castle rights and en passant
+	 */
+	static long flagsKey(BoardFlags flags) {
+		long key = castleKeys[Color.White.ordinal()][flags.getCastleRights(Color.White).ordinal()]
+				^ castleKeys[Color.Black.ordinal()][flags.getCastleRights(Color.Black).ordinal()];
+
+		if (flags.getSideToMove() == Color.Black) {
+			key ^= sideKey;
+		}
+		if (flags.getEnPassant() != null) {
+			key ^= enPassantKeys[flags.getEnPassant().getFile()];
+		}
+
+		return key;
+	}
+
+	/**
+	 * Calculate the hash of a board data from scratch
+	 *
+	 * @param data the board data
+	 * @return the hash of the position
+	 */
+	static long hash(IBoardData data) {
+		long hash = flagsKey(data.getFlags());
+
+		for (Color color : Color.values()) {
+			for (PieceType pieceType : PieceType.values()) {
+				for (long bits = data.getPieces(pieceType, color); bits != 0; bits &= bits - 1) {
+					hash ^= pieceKey(pieceType, color, Long.numberOfTrailingZeros(bits));
+				}
+			}
+		}
+
+		return hash;
+	}
+}
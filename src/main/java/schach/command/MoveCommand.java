@@ -83,6 +83,7 @@ class MoveCommand extends Command {
 
 		if (consoleMain.getGameType().isAIGame()) {
 			game.playAIMove();
+			consoleMain.printAIReport();
 			consoleMain.displayBoard();
 			consoleMain.printBoardStatus();
 		}
@@ -29,6 +29,7 @@ import javafx.scene.paint.Paint;
 import javafx.stage.Stage;
 import schach.Game;
 import schach.GameType;
+import schach.ai.SearchResult;
 import schach.board.BoardException;
 import schach.board.BoardStatus;
 import schach.board.Color;
@@ -81,7 +82,12 @@ public class GameController implements NetworkListener {
 	@FXML
 	private Label turnWhite;
 
+	@FXML
+	private Label aiReport;
+
 	private boolean connected = false;
+	// Set when the game is left, read by the AI thread
+	private volatile boolean closed = false;
 
 	/**
 	 * The constructor of the game controller.
@@ -94,9 +100,12 @@ public class GameController implements NetworkListener {
 	public GameController(GameView gameView, GameType gameType, String endpoint, int difficulty) {
 		this.view = gameView;
 		this.model = new GameModel(gameType);
-		this.model.getGame().setAIDifficulty(difficulty);
+		if (gameType.isAIGame()) { this.model.getGame().setAIDifficulty(difficulty); }
 
-		if (gameType == GameType.AIB) { model.getGame().playAIMove(); }
+		if (gameType == GameType.AIB) {
+			model.getGame().playAIMove();
+			model.getGame().startPondering();
+		}
 
 		NetworkManager networkManager = null;
 		if (gameType == GameType.NetworkHost) {
@@ -222,8 +231,23 @@ public class GameController implements NetworkListener {
 		drawBoard();
 	}
 
+	@FXML
+	private void ponder(ActionEvent event) {
+		Game game = model.getGame();
+		game.setPonder(((CheckMenuItem) event.getSource()).isSelected());
+
+		// Start at once if the player is thinking
+		if (game.isPonder() && model.getGameType().isAIGame() && !model.isPlayLock()) { game.startPondering(); }
+	}
+
 	@FXML
 	private void closeToMenu() throws IOException {
+		// Do not let the AI think for a game that is left. Turning pondering off
+		// ends a ponder search even if it has not started yet.
+		closed = true;
+		model.getGame().setPonder(false);
+		model.getGame().stopAI();
+
 		if (model.getNetworkManager() != null && connected) {
 			connected = false;
 			model.getNetworkManager().sendMessage("CLOSE");
@@ -289,14 +313,20 @@ public class GameController implements NetworkListener {
 			// Play AI move if AI game
 			if (!gameOver && gameType.isAIGame()) {
 				model.setPlayLock(true);
-				new Thread(() -> {
+				Thread aiThread = new Thread(() -> {
 					game.playAIMove();
+					// Think about the next move while the player thinks, unless the game
+					// was left during the move
+					if (!closed) { game.startPondering(); }
 					Platform.runLater(() -> {
 						updateView();
 						updateNotification();
 						model.setPlayLock(false);
 					});
-				}).start();
+				});
+				// Do not keep the application alive if the window is closed while the AI thinks
+				aiThread.setDaemon(true);
+				aiThread.start();
 			}
 		} catch (BoardException e) {
 			e.printStackTrace();
@@ -312,6 +342,7 @@ public class GameController implements NetworkListener {
 		updateBeaten(Color.Black);
 		updateHistory();
 		updateSideToMove();
+		updateAIReport();
 	}
 
 	private void updateNotification() {
@@ -405,6 +436,16 @@ public class GameController implements NetworkListener {
 		}
 	}
 
+	private void updateAIReport() {
+		SearchResult result = model.getGame().getLastAIResult();
+		if (result == null) {
+			aiReport.setText("");
+			return;
+		}
+
+		aiReport.setText("AI: " + result.getNodes() + " positions, " + result.getTime() + " ms");
+	}
+
 	private EventHandler<ActionEvent> onHistoryClickHandler(int moveIndex) {
 		return event -> onHistoryClick(moveIndex);
 	}
@@ -0,0 +1,71 @@
+package schach;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import schach.ai.SearchLimits;
+import schach.ai.SearchResult;
+import schach.board.BoardException;
+import schach.board.Move;
+import schach.board.Position;
+
+/**
+ * Test class for Difficulty
+ */
+public class DifficultyTest {
+	// The positions a search thread visits before it checks the budget
+	private static final int batchSize = 1024;
+
+	/**
+	 * Test that the levels of the menus map to the difficulties
+	 */
+	@Test
+	public void testFromLevel() {
+		assertEquals(Difficulty.Easy, Difficulty.fromLevel(2), "expected easy");
+		assertEquals(Difficulty.Expert, Difficulty.fromLevel(5), "expected expert");
+		assertThrows(IllegalArgumentException.class, () -> Difficulty.fromLevel(6));
+	}
+
+	/**
+	 * Test that the budgets grow with the difficulty and become limits
+	 */
+	@Test
+	public void testLimits() {
+		Difficulty[] difficulties = Difficulty.values();
+		for (int i = 1; i < difficulties.length; i++) {
+			assertTrue(difficulties[i].getNodes() > difficulties[i - 1].getNodes(), "expected a larger budget");
+		}
+
+		SearchLimits limits = Difficulty.Medium.createLimits();
+		assertEquals(Difficulty.Medium.getNodes(), limits.getNodes(), "wrong node budget");
+		assertEquals(Difficulty.Medium.getMoveTime(), limits.getMoveTime(), "wrong time budget");
+		assertEquals(0, limits.getDepth(), "expected no depth limit");
+	}
+
+	/**
+	 * Test that the AI of a game keeps to the budget and reports what it used
+	 */
+	@Test
+	public void testGameBudget() {
+		Game game = new Game();
+		game.setAIDifficulty(2);
+		assertEquals(Difficulty.Easy, game.getAIDifficulty(), "expected easy");
+		assertNull(game.getLastAIResult(), "expected no result before the first move");
+
+		try {
+			game.play(new Move(new Position(4, 1), new Position(4, 3)));
+		} catch (BoardException e) {
+			fail(e);
+		}
+		game.playAIMove();
+
+		SearchResult result = game.getLastAIResult();
+		assertEquals(2, game.getHistory().size(), "expected the AI move");
+		assertTrue(result.getNodes() > 0, "expected visited positions");
+		// Every thread may visit one batch more before it notices the budget
+		assertTrue(result.getNodes() < Difficulty.Easy.getNodes() + (Difficulty.Easy.getThreads() + 1) * batchSize,
+				"expected the budget to be kept, visited " + result.getNodes());
+		assertTrue(result.getTime() <= Difficulty.Easy.getMoveTime() + 100, "expected the time to be kept");
+	}
+}
@@ -1,7 +1,11 @@
 package schach.ai.simple;
 
+import java.util.List;
+
 import org.junit.jupiter.api.Test;
 
+import schach.ai.SearchLimits;
+import schach.ai.SearchResult;
 import schach.board.*;
 import schach.board.simple.Board;
 
@@ -32,4 +36,380 @@ public class AITest {
 		assertNotNull(move, "Error in Class AI for Startposition");
 	}
 
+	/**
+	 * Test that the AI finds a mate in one and uses its transposition table
+	 */
+	@Test
+	public void testMateInOne() {
+		AI ai = new AI(1);
+		Move move = null;
+		try {
+			IBoard board = new Board("6k1/5ppp/8/8/8/8/5PPP/R5K1 w - - 0 1");
+			move = ai.getBestMove(board, 3);
+			assertTrue(ai.getTranspositionTable().getStores() > 0, "expected stored entries");
+
+			// The second search finds the entries of the first one
+			assertEquals(move, ai.getBestMove(board, 3), "expected the same move");
+			assertTrue(ai.getTranspositionTable().getHits() > 0, "expected table hits");
+		} catch (BoardException e) {
+			fail(e);
+		}
+
+		assertEquals(new Move(new Position(0, 0), new Position(0, 7)), move, "expected mate");
+	}
+
+	/**
+	 * Test that the AI returns a move of a completed depth when the move time is
+	 * up
+	 */
+	@Test
+	public void testMoveTime() throws InterruptedException {
+		AI ai = new AI(1);
+		Move[] result = new Move[1];
+		Thread thread = new Thread(() -> {
+			try {
+				result[0] = ai.getBestMove(
+						new Board("r1bqkbnr/pppp1ppp/2n5/4p3/4P3/5N2/PPPP1PPP/RNBQKB1R w KQkq - 2 3"),
+						SearchLimits.moveTime(200));
+			} catch (BoardException e) {
+				fail(e);
+			}
+		});
+		thread.start();
+
+		// Without the move time the search would go on to the deepest depth
+		thread.join(10_000);
+		assertFalse(thread.isAlive(), "expected the search to stop");
+		assertNotNull(result[0], "expected a move");
+		assertTrue(ai.getCompletedDepth() >= 1, "expected a completed depth");
+	}
+
+	/**
+	 * Test that a search without limits can be stopped from another thread
+	 */
+	@Test
+	public void testStop() throws InterruptedException {
+		AI ai = new AI(1);
+		Move[] result = new Move[1];
+		Thread thread = new Thread(() -> {
+			try {
+				result[0] = ai.getBestMove(new Board(), new SearchLimits());
+			} catch (BoardException e) {
+				fail(e);
+			}
+		});
+		thread.start();
+
+		Thread.sleep(200);
+		ai.stop();
+		thread.join(10_000);
+
+		assertFalse(thread.isAlive(), "expected the search to stop");
+		assertNotNull(result[0], "expected a move");
+	}
+
+	/**
+	 * Test that the search stops after the given amount of positions
+	 */
+	@Test
+	public void testNodeLimit() {
+		AI ai = new AI(1, 3);
+		try {
+			Move move = ai.getBestMove(new Board(), new SearchLimits().setNodes(20_000));
+			assertNotNull(move, "expected a move");
+		} catch (BoardException e) {
+			fail(e);
+		}
+
+		// Every thread may visit one batch more before it notices the limit
+		assertTrue(ai.getNodes() >= 20_000, "expected the limit to be reached");
+		assertTrue(ai.getNodes() < 20_000 + 4 * SearchControl.checkInterval, "expected the search to stop");
+	}
+
+	/**
+	 * Test that a depth limit searches every depth up to the limit
+	 */
+	@Test
+	public void testDepthLimit() {
+		AI ai = new AI(1);
+		try {
+			ai.getBestMove(new Board(), SearchLimits.depth(3));
+		} catch (BoardException e) {
+			fail(e);
+		}
+
+		assertEquals(3, ai.getCompletedDepth(), "expected depth 3");
+	}
+
+	/**
+	 * Test that the quiescence search sees the recapture behind a capture, so the
+	 * AI does not take a defended pawn with its queen at depth 1
+	 */
+	@Test
+	public void testQuiescence() {
+		Move move = null;
+		try {
+			move = new AI(1).getBestMove(new Board("4k3/8/2p5/3p4/8/8/8/3QK3 w - - 0 1"), 1);
+		} catch (BoardException e) {
+			fail(e);
+		}
+
+		assertNotEquals(new Move(new Position(3, 0), new Position(3, 4)), move, "expected no queen sacrifice");
+	}
+
+	/**
+	 * Test that the principal variation starts with the best move and is a line of
+	 * valid moves as long as the depth
+	 */
+	@Test
+	public void testPrincipalVariation() {
+		AI ai = new AI(1);
+		try {
+			IBoard board = new Board("r1bqkbnr/pppp1ppp/2n5/4p3/4P3/5N2/PPPP1PPP/RNBQKB1R w KQkq - 2 3");
+			Move move = ai.getBestMove(board, 4);
+			List<Move> line = ai.getPrincipalVariation();
+
+			assertEquals(4, line.size(), "expected a line of the full depth");
+			assertEquals(move, line.get(0), "expected the best move first");
+			for (Move lineMove : line) {
+				board = board.move(lineMove).board;
+			}
+		} catch (BoardException e) {
+			fail(e);
+		}
+	}
+
+	/**
+	 * Test that the score of a mate in one is a mate score
+	 */
+	@Test
+	public void testMateScore() {
+		AI ai = new AI(1);
+		try {
+			ai.getBestMove(new Board("6k1/5ppp/8/8/8/8/5PPP/R5K1 w - - 0 1"), 5);
+		} catch (BoardException e) {
+			fail(e);
+		}
+
+		assertTrue(ai.getScore() > 900_000, "expected a mate score, was " + ai.getScore());
+	}
+
+	/**
+	 * Test that late move reductions visit fewer positions than a search without
+	 * them
+	 */
+	@Test
+	public void testLateMoveReductions() {
+		AI reduced = singleThreaded();
+		AI full = singleThreaded();
+		full.setSettings(new SearchSettings().setReductionPercent(0));
+		try {
+			IBoard board = new Board("r1bqkbnr/pppp1ppp/2n5/4p3/4P3/5N2/PPPP1PPP/RNBQKB1R w KQkq - 2 3");
+			reduced.getBestMove(board, 5);
+			full.getBestMove(board, 5);
+		} catch (BoardException e) {
+			fail(e);
+		}
+
+		assertTrue(reduced.getNodes() < full.getNodes(), "expected less nodes");
+	}
+
+	/**
+	 * Test that futility pruning and razoring visit fewer positions and still
+	 * find a mate
+	 */
+	@Test
+	public void testFutilityPruning() {
+		AI pruned = singleThreaded();
+		AI full = singleThreaded();
+		full.setSettings(new SearchSettings().setFutilityMargin(0).setReverseFutilityMargin(0).setRazorMargin(0));
+		try {
+			IBoard board = new Board("r1bqkbnr/pppp1ppp/2n5/4p3/4P3/5N2/PPPP1PPP/RNBQKB1R w KQkq - 2 3");
+			pruned.getBestMove(board, 5);
+			full.getBestMove(board, 5);
+			assertTrue(pruned.getNodes() < full.getNodes(), "expected less nodes");
+
+			Move mate = pruned.getBestMove(new Board("6k1/5ppp/8/8/8/8/5PPP/R5K1 w - - 0 1"), 4);
+			assertEquals(new Move(new Position(0, 0), new Position(0, 7)), mate, "expected mate");
+		} catch (BoardException e) {
+			fail(e);
+		}
+	}
+
+	/**
+	 * Test that checks and forced replies are searched deeper, and that the
+	 * budget limits it
+	 */
+	@Test
+	public void testExtensions() {
+		AI extended = singleThreaded();
+		AI plain = singleThreaded();
+		plain.setSettings(new SearchSettings().setExtensionBudget(0));
+		try {
+			IBoard board = new Board("r5k1/5ppp/8/8/8/8/3R1PPP/3R2K1 w - - 0 1");
+			Move move = extended.getBestMove(board, 3);
+			plain.getBestMove(board, 3);
+
+			assertEquals(new Move(new Position(3, 1), new Position(3, 7)), move, "expected the mating check");
+			assertTrue(extended.getScore() > 900_000, "expected a mate score");
+		} catch (BoardException e) {
+			fail(e);
+		}
+
+		assertTrue(extended.getNodes() > plain.getNodes(), "expected more nodes");
+	}
+
+	/**
+	 * Test that helper threads search along and that the thread count can be
+	 * changed, but not below one
+	 */
+	@Test
+	public void testThreads() {
+		AI ai = new AI(1, 4);
+		try {
+			IBoard board = new Board("6k1/5ppp/8/8/8/8/5PPP/R5K1 w - - 0 1");
+			Move move = ai.getBestMove(board, 5);
+			assertEquals(new Move(new Position(0, 0), new Position(0, 7)), move, "expected mate");
+			assertEquals(5, ai.getCompletedDepth(), "expected depth 5");
+
+			ai.setThreads(2);
+			assertEquals(2, ai.getThreads(), "wrong thread count");
+			move = ai.getBestMove(new Board(), SearchLimits.moveTime(200));
+			assertTrue(new Board().getValidMoves().contains(move), "expected a valid move");
+		} catch (BoardException e) {
+			fail(e);
+		}
+
+		assertThrows(IllegalArgumentException.class, () -> ai.setThreads(0));
+	}
+
+	/**
+	 * Test that one AI can search two positions at the same time and that each
+	 * call gets its own result
+	 */
+	@Test
+	public void testConcurrentSearches() throws InterruptedException {
+		AI ai = new AI(1, 2);
+		Move[] results = new Move[2];
+		Thread mate = new Thread(() -> {
+			try {
+				results[0] = ai.getBestMove(new Board("6k1/5ppp/8/8/8/8/5PPP/R5K1 w - - 0 1"), 5);
+			} catch (BoardException e) {
+				fail(e);
+			}
+		});
+		Thread start = new Thread(() -> {
+			try {
+				results[1] = ai.getBestMove(new Board(), SearchLimits.moveTime(300));
+			} catch (BoardException e) {
+				fail(e);
+			}
+		});
+		mate.start();
+		start.start();
+		mate.join();
+		start.join();
+
+		assertEquals(new Move(new Position(0, 0), new Position(0, 7)), results[0], "expected mate");
+		assertTrue(new Board().getValidMoves().contains(results[1]), "expected a valid move");
+
+		SearchResult result = ai.getLastResult();
+		assertTrue(result.getNodes() > 0, "expected visited positions");
+		assertEquals(result.getBestMove(), result.getPrincipalVariation().get(0), "expected the best move first");
+	}
+
+	/**
+	 * Test that a ponder search ignores its move time until the ponder hit, and
+	 * that the AI expects a valid reply
+	 */
+	@Test
+	public void testPonder() throws InterruptedException {
+		AI ai = new AI(1, 1);
+		Move[] result = new Move[1];
+		Thread thread = new Thread(() -> {
+			try {
+				result[0] = ai.getBestMove(new Board(), SearchLimits.moveTime(100).setPonder(true));
+			} catch (BoardException e) {
+				fail(e);
+			}
+		});
+		thread.start();
+
+		Thread.sleep(300);
+		assertTrue(thread.isAlive(), "expected the search to wait for the ponder hit");
+		ai.ponderHit();
+		thread.join(1000);
+
+		assertFalse(thread.isAlive(), "expected the search to stop after the move time");
+		assertNotNull(result[0], "expected a move");
+
+		Move reply = ai.getPonderMove();
+		assertNotNull(reply, "expected a reply");
+		try {
+			assertTrue(new Board().move(result[0]).board.getValidMoves().contains(reply), "expected a valid reply");
+		} catch (BoardException e) {
+			fail(e);
+		}
+	}
+
+	/**
+	 * Test that a search after the expected reply goes on with the expected line,
+	 * and that a reset forgets it
+	 */
+	@Test
+	public void testContinueLine() {
+		AI ai = singleThreaded();
+		AI cold = singleThreaded();
+		try {
+			IBoard board = new Board("r1bqkbnr/pppp1ppp/2n5/4p3/4P3/5N2/PPPP1PPP/RNBQKB1R w KQkq - 2 3");
+			ai.getBestMove(board, 5);
+			List<Move> line = ai.getPrincipalVariation();
+			IBoard expected = board.move(line.get(0)).board.move(line.get(1)).board;
+			assertEquals(expected.getZobristHash(), ai.getLastResult().getExpectedHash(), "expected the reply");
+
+			Move move = ai.getBestMove(expected, 5);
+			cold.getBestMove(expected, 5);
+			assertTrue(expected.getValidMoves().contains(move), "expected a valid move");
+			assertEquals(5, ai.getCompletedDepth(), "expected depth 5");
+			assertTrue(ai.getNodes() < cold.getNodes(), "expected less nodes than a new AI");
+
+			// A search stopped before its first depth plays the move it searches first
+			List<Move> rest = line.subList(2, line.size());
+			assertEquals(rest.get(0), searchStopped(expected, rest), "expected the move of the line first");
+			assertNotEquals(rest.get(0), searchStopped(expected, null), "expected another move without the line");
+
+			ai.reset();
+			assertNull(ai.getPonderMove(), "expected no reply");
+			assertEquals(0, ai.getTranspositionTable().getStores(), "expected an empty table");
+		} catch (BoardException e) {
+			fail(e);
+		}
+	}
+
+	/**
+	 * Search with a search context that is stopped before it starts
+	 *
+	 * @param board the board to search
+	 * @param line  the line to continue, null for none
+	 * @return the move the search plays
+	 * @throws BoardException if there is no valid move
+	 */
+	private static Move searchStopped(IBoard board, List<Move> line) throws BoardException {
+		SearchContext context = new SearchContext(board, SearchLimits.depth(5), new TranspositionTable(1),
+				new SearchSettings(), new MoveOrder[] { new MoveOrder() });
+		if (line != null) {
+			context.continueLine(line, 0);
+		}
+		context.stop();
+		// One thread, so no helper is submitted
+		return context.search(null).getBestMove();
+	}
+
+	/**
+	 * Creates an AI without helpers, so node counts do not depend on how long the
+	 * helpers search until they are stopped
+	 */
+	private static AI singleThreaded() {
+		return new AI(1, 1);
+	}
 }
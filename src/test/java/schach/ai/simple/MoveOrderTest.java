@@ -0,0 +1,94 @@
+package schach.ai.simple;
+
+import org.junit.jupiter.api.Test;
+
+import schach.board.*;
+import schach.board.simple.Board;
+import schach.board.simple.SearchBoard;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for {@link #MoveOrder}
+ */
+public class MoveOrderTest {
+	private SearchBoard board;
+	private int[] moves = new int[PackedMove.maxMoves];
+	private int[] scores = new int[PackedMove.maxMoves];
+	private int count;
+
+	/**
+	 * Setup a position with a queen and a pawn to capture
+	 */
+	public MoveOrderTest() {
+		try {
+			board = new SearchBoard(new Board("4k3/8/8/3q4/2P1p3/3Q4/8/4K3 w - - 0 1"));
+		} catch (BoardException e) {
+			fail(e);
+		}
+		count = board.getValidMoves(moves);
+	}
+
+	/**
+	 * Test that the hash move comes first, then the captures with the most
+	 * valuable victim and that a losing capture comes last
+	 */
+	@Test
+	public void testHashMoveAndCaptures() {
+		MoveOrder order = new MoveOrder();
+		int hashMove = find(3, 2, 3, 3);
+		order.scoreMoves(board, moves, scores, count, hashMove, 0);
+
+		assertEquals(hashMove, MoveOrder.pickNext(moves, scores, 0, count), "expected the hash move");
+		assertEquals(find(2, 3, 3, 4), MoveOrder.pickNext(moves, scores, 1, count), "expected pawn takes queen");
+		assertEquals(find(3, 2, 3, 4), MoveOrder.pickNext(moves, scores, 2, count), "expected queen takes queen");
+		for (int i = 3; i < count - 1; i++) {
+			MoveOrder.pickNext(moves, scores, i, count);
+		}
+		assertEquals(find(3, 2, 4, 3), moves[count - 1], "expected queen takes defended pawn");
+	}
+
+	/**
+	 * Test that a quiet move which caused a cutoff is tried before the other quiet
+	 * moves, and that aging forgets the killer
+	 */
+	@Test
+	public void testKillerAndHistory() {
+		MoveOrder order = new MoveOrder();
+		int killer = find(4, 0, 5, 1);
+		int quiet = find(4, 0, 3, 0);
+		order.updateCutoff(board, killer, 2, 4, new int[] { quiet }, 1);
+
+		order.scoreMoves(board, moves, scores, count, 0, 2);
+		for (int i = 0; i < 2; i++) {
+			MoveOrder.pickNext(moves, scores, i, count);
+		}
+		assertEquals(killer, MoveOrder.pickNext(moves, scores, 2, count), "expected the killer after the captures");
+
+		// In another ply only the history is left
+		order.scoreMoves(board, moves, scores, count, 0, 3);
+		assertTrue(scores[indexOf(killer)] > 0, "expected a raised history");
+		assertTrue(scores[indexOf(quiet)] < 0, "expected a lowered history");
+
+		order.age();
+		order.scoreMoves(board, moves, scores, count, 0, 2);
+		assertTrue(scores[indexOf(killer)] < 1 << 14, "expected the killer to be forgotten");
+	}
+
+	private int find(int fromFile, int fromRank, int toFile, int toRank) {
+		int move = indexOf(PackedMove.fromMove(new Move(new Position(fromFile, fromRank), new Position(toFile, toRank))));
+		return moves[move];
+	}
+
+	private int indexOf(int move) {
+		// Compare squares only, the generated moves carry flags
+		for (int i = 0; i < count; i++) {
+			if ((moves[i] & 0xFFF) == (move & 0xFFF)) {
+				return i;
+			}
+		}
+
+		fail("missing move " + PackedMove.toString(move));
+		return -1;
+	}
+}
@@ -0,0 +1,65 @@
+package schach.ai.simple;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for {@link #SearchSettings}
+ */
+public class SearchSettingsTest {
+	/**
+	 * Test that the reductions grow with depth and move index and leave the first
+	 * moves alone
+	 */
+	@Test
+	public void testReductions() {
+		SearchSettings settings = new SearchSettings();
+
+		assertEquals(0, settings.getReduction(10, settings.getFullDepthMoves() - 1), "expected no reduction");
+		assertTrue(settings.getReduction(3, 4) >= 1, "expected a reduction");
+		assertTrue(settings.getReduction(12, 30) > settings.getReduction(3, 4), "expected a bigger reduction");
+		assertTrue(settings.getReduction(12, 30) >= settings.getReduction(12, 10), "expected a bigger reduction");
+
+		// Beyond the table
+		assertEquals(settings.getReduction(63, 63), settings.getReduction(100, 200), "expected the largest reduction");
+	}
+
+	/**
+	 * Test that the reductions can be scaled and turned off
+	 */
+	@Test
+	public void testReductionPercent() {
+		SearchSettings settings = new SearchSettings();
+		int reduction = settings.getReduction(20, 40);
+
+		settings.setReductionPercent(200);
+		assertTrue(settings.getReduction(20, 40) >= 2 * reduction - 1, "expected twice the reduction");
+
+		settings.setReductionPercent(0);
+		assertEquals(0, settings.getReduction(20, 40), "expected no reduction");
+
+		assertThrows(IllegalArgumentException.class, () -> settings.setReductionPercent(-1));
+	}
+
+	/**
+	 * Test that the margins can be changed and turned off, but not be negative
+	 */
+	@Test
+	public void testMargins() {
+		SearchSettings settings = new SearchSettings().setFutilityMargin(0).setReverseFutilityMargin(90)
+				.setRazorMargin(400).setSeeMargin(80).setExtensionBudget(2);
+
+		assertEquals(0, settings.getFutilityMargin(), "wrong margin");
+		assertEquals(90, settings.getReverseFutilityMargin(), "wrong margin");
+		assertEquals(400, settings.getRazorMargin(), "wrong margin");
+		assertEquals(80, settings.getSeeMargin(), "wrong margin");
+		assertEquals(2, settings.getExtensionBudget(), "wrong budget");
+
+		assertThrows(IllegalArgumentException.class, () -> settings.setFutilityMargin(-1));
+		assertThrows(IllegalArgumentException.class, () -> settings.setReverseFutilityMargin(-1));
+		assertThrows(IllegalArgumentException.class, () -> settings.setRazorMargin(-1));
+		assertThrows(IllegalArgumentException.class, () -> settings.setSeeMargin(-1));
+		assertThrows(IllegalArgumentException.class, () -> settings.setExtensionBudget(-1));
+	}
+}
@@ -0,0 +1,91 @@
+package schach.ai.simple;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import schach.board.*;
+
+/**
+ * Test class for {@link #TranspositionTable}
+ */
+public class TranspositionTableTest {
+	private final static long hash = 0x1234_5678_9ABC_DEF0L;
+
+	/**
+	 * Test that a stored entry can be read back.
+	 */
+	@Test
+	public void testStoreAndProbe() {
+		TranspositionTable table = new TranspositionTable(1);
+		int move = PackedMove.encode(12, 28, PackedMove.doublePawnPushFlag);
+
+		assertEquals(0, table.probe(hash), "expected a miss");
+
+		table.store(hash, 5, TranspositionTable.lowerBound, -1234, 3, move);
+		long entry = table.probe(hash);
+		assertNotEquals(0, entry, "expected a hit");
+		assertEquals(move, TranspositionTable.getMove(entry), "wrong move");
+		assertEquals(5, TranspositionTable.getDepth(entry), "wrong depth");
+		assertEquals(TranspositionTable.lowerBound, TranspositionTable.getBound(entry), "wrong bound");
+		assertEquals(-1234, TranspositionTable.getScore(entry, 3), "wrong score");
+
+		assertEquals(2, table.getProbes(), "wrong probe count");
+		assertEquals(1, table.getHits(), "wrong hit count");
+		assertEquals(0.5, table.getHitRate(), "wrong hit rate");
+	}
+
+	/**
+	 * Test that mate scores are stored relative to the position.
+	 */
+	@Test
+	public void testMateScores() {
+		TranspositionTable table = new TranspositionTable(1);
+
+		// Mate found at ply 7 for a position at ply 4, read at ply 2
+		table.store(hash, 3, TranspositionTable.exactBound, 1_000_000 - 7, 4, 0);
+		assertEquals(1_000_000 - 5, TranspositionTable.getScore(table.probe(hash), 2), "wrong mate score");
+
+		table.store(hash, 3, TranspositionTable.exactBound, -1_000_000 + 7, 4, 0);
+		assertEquals(-1_000_000 + 5, TranspositionTable.getScore(table.probe(hash), 2), "wrong mate score");
+	}
+
+	/**
+	 * Test that deeper entries are kept and other positions are told apart.
+	 */
+	@Test
+	public void testReplacement() {
+		TranspositionTable table = new TranspositionTable(1);
+		int move = PackedMove.encode(1, 18, 0);
+
+		table.store(hash, 6, TranspositionTable.lowerBound, 10, 0, move);
+		table.store(hash, 2, TranspositionTable.upperBound, 20, 0, 0);
+		assertEquals(6, TranspositionTable.getDepth(table.probe(hash)), "deeper entry should be kept");
+
+		table.store(hash, 7, TranspositionTable.upperBound, 30, 0, 0);
+		assertEquals(7, TranspositionTable.getDepth(table.probe(hash)), "deeper entry should replace");
+		assertEquals(move, TranspositionTable.getMove(table.probe(hash)), "best move should be kept");
+
+		// Same index, different position
+		long other = hash ^ 1L << 62;
+		assertEquals(0, table.probe(other), "other position should miss");
+
+		table.newSearch();
+		table.store(other, 1, TranspositionTable.exactBound, 40, 0, 0);
+		assertEquals(0, table.probe(hash), "old entry should be replaced");
+		assertEquals(40, TranspositionTable.getScore(table.probe(other), 0), "wrong score");
+		assertEquals(1, table.getCollisions(), "wrong collision count");
+
+		table.clear();
+		assertEquals(0, table.probe(other), "expected a miss after clear");
+	}
+
+	/**
+	 * Test the capacity for a given size.
+	 */
+	@Test
+	public void testCapacity() {
+		assertEquals(65536, new TranspositionTable(1).getCapacity(), "wrong capacity");
+		assertThrows(IllegalArgumentException.class, () -> new TranspositionTable(0), "expected invalid size");
+	}
+}
@@ -0,0 +1,45 @@
+package schach.board;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for {@link #PackedMove}
+ */
+public class PackedMoveTest {
+	private final static String errorDecodeFailed = "decode failed";
+
+	/**
+	 * Test encoding and decoding of from, to, promotion and flags.
+	 */
+	@Test
+	public void testEncode() {
+		int move = PackedMove.encode(52, 60, PieceType.Knight, PackedMove.captureFlag);
+		assertEquals(52, PackedMove.getFrom(move), errorDecodeFailed);
+		assertEquals(60, PackedMove.getTo(move), errorDecodeFailed);
+		assertEquals(PieceType.Knight, PackedMove.getPromotion(move), errorDecodeFailed);
+		assertTrue(PackedMove.isCapture(move), errorDecodeFailed);
+		assertTrue(PackedMove.isPromotion(move), errorDecodeFailed);
+		assertFalse(PackedMove.isEnPassant(move), errorDecodeFailed);
+		assertFalse(PackedMove.isCastle(move), errorDecodeFailed);
+
+		int castle = PackedMove.encode(4, 6, PackedMove.castleFlag);
+		assertNull(PackedMove.getPromotion(castle), errorDecodeFailed);
+		assertTrue(PackedMove.isCastle(castle), errorDecodeFailed);
+		assertFalse(PackedMove.isCapture(castle), errorDecodeFailed);
+	}
+
+	/**
+	 * Test conversion from and to moves.
+	 */
+	@Test
+	public void testMoveConversion() {
+		Move move = new Move(new Position(1, 6), new Position(0, 7), PieceType.Rook);
+		assertEquals(move, PackedMove.toMove(PackedMove.fromMove(move)), "moves should be equals");
+
+		Move noPromotion = new Move(new Position(4, 1), new Position(4, 3));
+		assertEquals(noPromotion, PackedMove.toMove(PackedMove.fromMove(noPromotion)), "moves should be equals");
+		assertEquals("e2-e4", PackedMove.toString(PackedMove.fromMove(noPromotion)), "toString method failed");
+	}
+}
@@ -37,6 +37,29 @@ public class PositionTest {
 		assertNotSame(pos, posCopy, "positions should not be the same");
 	}
 
+	/**
+	 * Test that the static factory returns shared instances with matching squares.
+	 */
+	@Test
+	public void testSharedPositions() {
+		for (int rank = 0; rank < 8; rank++) {
+			for (int file = 0; file < 8; file++) {
+				Position pos = Position.of(file, rank);
+				assertEquals(new Position(file, rank), pos, positionsShouldBeEquals);
+				assertSame(pos, Position.of(file + rank * 8), "positions should be the same");
+				assertEquals(file + rank * 8, pos.getSquare(), "position get square failed");
+			}
+		}
+
+		assertThrows(RuntimeException.class, () -> {
+			Position.of(8, 0);
+		}, positionShouldBeInvalid);
+
+		assertThrows(RuntimeException.class, () -> {
+			Position.of(64);
+		}, positionShouldBeInvalid);
+	}
+
 	/**
 	 * Test some invalid positions. Should throw {@link #RuntimeException}.
 	 */
@@ -0,0 +1,94 @@
+package schach.board.simple;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.*;
+import schach.board.*;
+
+/**
+ * Test class for {@link #BoardAttacks}
+ */
+public class BoardAttacksTest {
+	private final static String wrongAttacks = "wrong attacks";
+
+	/**
+	 * Test rook attacks on an empty board and with blockers.
+	 */
+	@Test
+	public void testRookAttacks() {
+		// Rook on a1, empty board: whole first rank and a-file
+		long expected = (Consts.ranks[0] | Consts.files[0]) & ~1L;
+		assertEquals(expected, BoardAttacks.rookAttacks(0, 0L), wrongAttacks);
+
+		// Rook on d4, blockers on d6 and b4
+		long occupancy = bit(3, 5) | bit(1, 3) | bit(3, 3);
+		long expected2 = bit(3, 4) | bit(3, 5) | bit(3, 2) | bit(3, 1) | bit(3, 0) | bit(2, 3) | bit(1, 3)
+				| bit(4, 3) | bit(5, 3) | bit(6, 3) | bit(7, 3);
+		assertEquals(expected2, BoardAttacks.rookAttacks(27, occupancy), wrongAttacks);
+	}
+
+	/**
+	 * Test bishop attacks with blockers.
+	 */
+	@Test
+	public void testBishopAttacks() {
+		// Bishop on c1, blocker on e3
+		long occupancy = bit(4, 2);
+		long expected = bit(1, 1) | bit(0, 2) | bit(3, 1) | bit(4, 2);
+		assertEquals(expected, BoardAttacks.bishopAttacks(2, occupancy), wrongAttacks);
+	}
+
+	/**
+	 * Compare slider attacks against a simple ray walk for random occupancies.
+	 */
+	@Test
+	public void testSliderAttacksRandomOccupancy() {
+		Random random = new Random(42);
+		for (int i = 0; i < 1000; i++) {
+			long occupancy = random.nextLong() & random.nextLong();
+			for (int square = 0; square < 64; square++) {
+				assertEquals(rayAttacks(square, occupancy, true), BoardAttacks.rookAttacks(square, occupancy),
+						wrongAttacks);
+				assertEquals(rayAttacks(square, occupancy, false), BoardAttacks.bishopAttacks(square, occupancy),
+						wrongAttacks);
+			}
+		}
+	}
+
+	/**
+	 * Test the step attacks of knight, king and pawn.
+	 */
+	@Test
+	public void testStepAttacks() {
+		assertEquals(2, Long.bitCount(BoardAttacks.knightAttacks(63)), wrongAttacks);
+		assertEquals(8, Long.bitCount(BoardAttacks.knightAttacks(36)), wrongAttacks);
+		assertEquals(3, Long.bitCount(BoardAttacks.kingAttacks(0)), wrongAttacks);
+		assertEquals(bit(3, 2) | bit(5, 2), BoardAttacks.pawnAttacks(Color.White, 12), wrongAttacks);
+		assertEquals(bit(1, 5), BoardAttacks.pawnAttacks(Color.Black, 48), wrongAttacks);
+	}
+
+	private static long bit(int file, int rank) {
+		return 1L << (file + rank * 8);
+	}
+
+	private static long rayAttacks(int square, long occupancy, boolean straight) {
+		int[][] deltas = straight ? new int[][] { { 0, 1 }, { 0, -1 }, { 1, 0 }, { -1, 0 } }
+				: new int[][] { { 1, 1 }, { 1, -1 }, { -1, 1 }, { -1, -1 } };
+		long attacks = 0;
+
+		for (int[] delta : deltas) {
+			int file = square % 8 + delta[0];
+			int rank = square / 8 + delta[1];
+			while (Position.isValid(file, rank)) {
+				attacks |= bit(file, rank);
+				if ((occupancy & bit(file, rank)) != 0) {
+					break;
+				}
+				file += delta[0];
+				rank += delta[1];
+			}
+		}
+
+		return attacks;
+	}
+}
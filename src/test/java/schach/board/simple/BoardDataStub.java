@@ -152,6 +152,11 @@ public class BoardDataStub implements IBoardData {
 		return flags;
 	}
 
+	@Override
+	public long getZobristHash() {
+		return Zobrist.hash(this);
+	}
+
 	@Override
 	public boolean anyPieceAt(Position position) {
 		return pieceAt(position) != null;
@@ -181,6 +186,39 @@ public class BoardDataStub implements IBoardData {
 		}
 	}
 
+	@Override
+	public PieceType pieceAt(int square) {
+		return pieceAt(Position.of(square));
+	}
+
+	@Override
+	public PieceType pieceAt(int square, Color color) {
+		return pieceAt(Position.of(square), color);
+	}
+
+	@Override
+	public long getPiecesCombined() {
+		return getPiecesCombined(Color.White) | getPiecesCombined(Color.Black);
+	}
+
+	@Override
+	public long getPiecesCombined(Color color) {
+		long bits = 0;
+		for (PieceType pieceType : PieceType.values()) {
+			bits |= getPieces(pieceType, color);
+		}
+		return bits;
+	}
+
+	@Override
+	public long getPieces(PieceType pieceType, Color color) {
+		long bits = 0;
+		for (Position position : getPositionsOf(pieceType, color)) {
+			bits |= 1L << (position.getFile() + position.getRank() * 8);
+		}
+		return bits;
+	}
+
 	@Override
 	public int whitePiecesCount() {
 		return whitePieces.size();
@@ -225,4 +263,9 @@ public class BoardDataStub implements IBoardData {
 			return pseudoAttackedByBlack.contains(pos);
 		}
 	}
+
+	@Override
+	public boolean isPseudoAttacked(int square, Color attacker) {
+		return isPseudoAttacked(Position.of(square), attacker);
+	}
 }
@@ -185,4 +185,122 @@ public class BoardMoveGenTest {
 		assertFalse(blackPseudoValidMoves.contains(new Move(new Position(5, 7), new Position(0, 7))), unexpectedMove);
 		assertFalse(blackPseudoValidMoves.contains(new Move(new Position(5, 7), new Position(5, 1))), unexpectedMove);
 	}
+
+	/**
+	 * Test that en passant is not allowed if it uncovers a check along the rank.
+	 */
+	@Test
+	public void testLegalMovesEnPassantDiscoveredCheck() {
+		Set<Move> moves = legalMoves("8/8/8/KPp4r/8/8/8/7k w - c6 0 1");
+
+		assertFalse(moves.contains(new Move(new Position(1, 4), new Position(2, 5))), unexpectedMove);
+		assertTrue(moves.contains(new Move(new Position(1, 4), new Position(1, 5))), missingMove);
+	}
+
+	/**
+	 * Test that en passant is allowed if it beats the pawn giving check.
+	 */
+	@Test
+	public void testLegalMovesEnPassantResolvesCheck() {
+		Set<Move> moves = legalMoves("8/8/8/2k5/3Pp3/8/8/4K3 b - d3 0 1");
+
+		assertTrue(moves.contains(new Move(new Position(4, 3), new Position(3, 2))), missingMove);
+	}
+
+	/**
+	 * Test that a pinned piece may only move along the pin.
+	 */
+	@Test
+	public void testLegalMovesPinned() {
+		Set<Move> moves = legalMoves("4r2k/8/8/8/6n1/4R3/8/4K3 w - - 0 1");
+
+		assertTrue(moves.contains(new Move(new Position(4, 2), new Position(4, 7))), missingMove);
+		assertFalse(moves.contains(new Move(new Position(4, 2), new Position(0, 2))), unexpectedMove);
+		assertFalse(moves.contains(new Move(new Position(4, 0), new Position(5, 1))), unexpectedMove);
+	}
+
+	/**
+	 * Test that the legal moves are the pseudo moves that do not leave the own
+	 * king in check and the legal captures are the captures and promotions among
+	 * them while playing random games.
+	 */
+	@Test
+	public void testLegalMovesMatchPseudoMoves() {
+		String[] fens = { "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+				"8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+				"r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1" };
+		Random random = new Random(3);
+
+		for (String fen : fens) {
+			BoardData data = null;
+			try {
+				data = new BoardData(Fen.parse(fen));
+			} catch (BoardException e) {
+				fail(e);
+			}
+
+			for (int ply = 0; ply < 80; ply++) {
+				Set<Move> expected = new HashSet<Move>();
+				for (Move move : BoardMoveGen.genPseudoMoves(data)) {
+					try {
+						data.newFromPseudoValidMove(move);
+						expected.add(move);
+					} catch (BoardException e) {
+						// Leaves the king in check
+					}
+				}
+
+				int[] packedMoves = new int[PackedMove.maxMoves];
+				int count = BoardMoveGen.genLegalMoves(data, packedMoves);
+				Set<Move> actual = new HashSet<Move>();
+				for (int i = 0; i < count; i++) {
+					actual.add(PackedMove.toMove(packedMoves[i]));
+				}
+
+				assertEquals(expected, actual, "wrong legal moves");
+
+				Set<Move> expectedCaptures = new HashSet<Move>();
+				for (Move move : expected) {
+					if (move.getPromotion() != null || data.pieceAt(move.getTo()) != null
+							|| move.getTo().equals(data.getFlags().getEnPassant())
+									&& data.pieceAt(move.getFrom()) == PieceType.Pawn) {
+						expectedCaptures.add(move);
+					}
+				}
+				count = BoardMoveGen.genLegalCaptures(data, packedMoves);
+				Set<Move> actualCaptures = new HashSet<Move>();
+				for (int i = 0; i < count; i++) {
+					actualCaptures.add(PackedMove.toMove(packedMoves[i]));
+				}
+
+				assertEquals(expectedCaptures, actualCaptures, "wrong legal captures");
+				if (expected.isEmpty()) {
+					break;
+				}
+
+				List<Move> list = new ArrayList<Move>(expected);
+				try {
+					data = data.newFromPseudoValidMove(list.get(random.nextInt(list.size()))).boardData;
+				} catch (BoardException e) {
+					fail(e);
+				}
+			}
+		}
+	}
+
+	private Set<Move> legalMoves(String fen) {
+		int[] packedMoves = new int[PackedMove.maxMoves];
+		int count = 0;
+		try {
+			count = BoardMoveGen.genLegalMoves(new BoardData(Fen.parse(fen)), packedMoves);
+		} catch (BoardException e) {
+			fail(e);
+		}
+
+		Set<Move> moves = new HashSet<Move>();
+		for (int i = 0; i < count; i++) {
+			moves.add(PackedMove.toMove(packedMoves[i]));
+		}
+		return moves;
+	}
 }
@@ -43,6 +43,92 @@ public class BoardTest {
 		}
 	}
 
+	/**
+	 * Test the cheap check and valid move queries.
+	 */
+	@Test
+	public void testCheckAndAnyValidMove() {
+		try {
+			IBoard mate = new Board("rnb1kbnr/pppp1ppp/8/4p3/6Pq/5P2/PPPPP2P/RNBQKBNR w KQkq - 1 3");
+			assertTrue(mate.isInCheck(), "expected check");
+			assertFalse(mate.hasAnyValidMove(), "expected no valid move");
+
+			IBoard check = new Board("rnbqkbnr/ppp2ppp/3p4/1B2p3/4P3/8/PPPP1PPP/RNBQK1NR b KQkq - 1 3");
+			assertTrue(check.isInCheck(), "expected check");
+			assertTrue(check.hasAnyValidMove(), "expected valid moves");
+			assertEquals(BoardStatus.Check, check.getStatus(), "expected check status");
+
+			IBoard start = new Board();
+			assertFalse(start.isInCheck(), "expected no check");
+			assertTrue(start.hasAnyValidMove(), "expected valid moves");
+		} catch (BoardException e) {
+			fail(e);
+		}
+	}
+
+	/**
+	 * Test that boards shared between threads calculate their moves only once.
+	 */
+	@Test
+	public void testValidMovesShared() throws InterruptedException {
+		IBoard board = new Board();
+		List<List<Move>> results = Collections.synchronizedList(new ArrayList<List<Move>>());
+
+		List<Thread> threads = new ArrayList<Thread>();
+		for (int i = 0; i < 4; i++) {
+			threads.add(new Thread(() -> results.add(board.getValidMoves())));
+		}
+		for (Thread thread : threads) {
+			thread.start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		for (List<Move> moves : results) {
+			assertSame(results.get(0), moves, "expected the same moves");
+		}
+		assertEquals(20, results.get(0).size(), "wrong move count");
+	}
+
+	/**
+	 * Test that the incremental hash matches a hash from scratch and that
+	 * transpositions are equal.
+	 */
+	@Test
+	public void testZobristHash() {
+		Random random = new Random(5);
+		Board board = new Board();
+
+		for (int ply = 0; ply < 80 && !board.getStatus().isOver(); ply++) {
+			assertEquals(Zobrist.hash(board.getData()), board.getZobristHash(), "wrong incremental hash");
+
+			List<Move> moves = board.getValidMoves();
+			try {
+				board = (Board) board.move(moves.get(random.nextInt(moves.size()))).board;
+			} catch (BoardException e) {
+				fail(e);
+			}
+		}
+
+		try {
+			IBoard first = new Board().move(new Move(new Position(6, 0), new Position(5, 2))).board
+					.move(new Move(new Position(6, 7), new Position(5, 5))).board
+					.move(new Move(new Position(1, 0), new Position(2, 2))).board;
+			IBoard second = new Board().move(new Move(new Position(1, 0), new Position(2, 2))).board
+					.move(new Move(new Position(6, 7), new Position(5, 5))).board
+					.move(new Move(new Position(6, 0), new Position(5, 2))).board;
+			IBoard other = first.move(new Move(new Position(5, 5), new Position(6, 7))).board;
+
+			assertEquals(first, second, "transpositions should be equal");
+			assertEquals(first.hashCode(), second.hashCode(), "transpositions should have the same hash");
+			assertNotEquals(first, other, "different positions should not be equal");
+			assertNotEquals(first.getZobristHash(), other.getZobristHash(), "different positions should differ");
+		} catch (BoardException e) {
+			fail(e);
+		}
+	}
+
 	/**
 	 * Test pawn moves.
 	 */
@@ -0,0 +1,70 @@
+package schach.board.simple;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import schach.board.*;
+
+/**
+ * Test class for {@link #Perft}
+ */
+public class PerftTest {
+	// Positions with known node counts from https://www.chessprogramming.org/Perft_Results
+	private final static String[] fens = { "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+			"r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+			"8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+			"r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+			"rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+			"r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10" };
+	private final static long[][] nodes = { { 20, 400, 8902, 197281 }, { 48, 2039, 97862 }, { 14, 191, 2812, 43238 },
+			{ 6, 264, 9467 }, { 44, 1486, 62379 }, { 46, 2079, 89890 } };
+
+	/**
+	 * Test the node counts of known positions.
+	 */
+	@Test
+	public void testKnownPositions() {
+		Perft perft = new Perft(new ForkJoinPool(2));
+
+		for (int i = 0; i < fens.length; i++) {
+			IBoard board = newBoard(fens[i]);
+
+			assertEquals(1, perft.perft(board, 0), "wrong node count at depth 0");
+			for (int depth = 1; depth <= nodes[i].length; depth++) {
+				assertEquals(nodes[i][depth - 1], perft.perft(board, depth), "wrong node count for " + fens[i]);
+			}
+		}
+	}
+
+	/**
+	 * Test that divide has every root move and sums up to the node count.
+	 */
+	@Test
+	public void testDivide() {
+		Perft perft = new Perft();
+		IBoard board = newBoard(fens[1]);
+
+		Map<Move, Long> divide = perft.divide(board, 2);
+		assertEquals(48, divide.size(), "wrong root move count");
+		assertEquals(board.getValidMoves().size(), divide.size(), "wrong root move count");
+
+		long total = 0;
+		for (long count : divide.values()) {
+			total += count;
+		}
+		assertEquals(2039, total, "wrong total node count");
+	}
+
+	private IBoard newBoard(String fen) {
+		try {
+			return new Board(fen);
+		} catch (BoardException e) {
+			fail(e);
+			return null;
+		}
+	}
+}
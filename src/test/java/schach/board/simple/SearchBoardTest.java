@@ -0,0 +1,146 @@
+package schach.board.simple;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+
+import schach.board.*;
+
+/**
+ * Test class for {@link #SearchBoard}
+ */
+public class SearchBoardTest {
+	private final static String[] fens = { "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+			"r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+			"8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+			"r4rk1/1P4pp/p1N5/3pPp2/3p2n1/P1PP4/4BPPP/R2QK2R w KQ f6 0 1" };
+
+	/**
+	 * Test that a search board generates the same moves and status as a board
+	 * while playing random games.
+	 */
+	@Test
+	public void testMakeMoveMatchesBoard() {
+		Random random = new Random(7);
+
+		for (String fen : fens) {
+			IBoard board = null;
+			try {
+				board = new Board(fen);
+			} catch (BoardException e) {
+				fail(e);
+			}
+			SearchBoard searchBoard = new SearchBoard(board);
+
+			for (int ply = 0; ply < 60 && !board.getStatus().isOver(); ply++) {
+				assertBoardsEqual(board, searchBoard);
+
+				List<Move> moves = board.getValidMoves();
+				Move move = moves.get(random.nextInt(moves.size()));
+				try {
+					BoardResult result = board.move(move);
+					assertEquals(result.beaten, searchBoard.makeMove(move), "wrong beaten piece");
+					board = result.board;
+				} catch (BoardException e) {
+					fail(e);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Test that unmake move restores the initial position.
+	 */
+	@Test
+	public void testUnmakeMoveRestoresPosition() {
+		Random random = new Random(11);
+
+		for (String fen : fens) {
+			IBoard board = null;
+			try {
+				board = new Board(fen);
+			} catch (BoardException e) {
+				fail(e);
+			}
+			SearchBoard searchBoard = new SearchBoard(board);
+
+			int played = 0;
+			for (int ply = 0; ply < 40 && !searchBoard.getStatus().isOver(); ply++) {
+				List<Move> moves = searchBoard.getValidMoves();
+				try {
+					searchBoard.makeMove(moves.get(random.nextInt(moves.size())));
+				} catch (BoardException e) {
+					fail(e);
+				}
+				played++;
+			}
+
+			for (int i = 0; i < played; i++) {
+				searchBoard.unmakeMove();
+			}
+
+			assertBoardsEqual(board, searchBoard);
+		}
+	}
+
+	/**
+	 * Test that a null move passes the turn and loses the en passant right, and
+	 * that it can be taken back only once.
+	 */
+	@Test
+	public void testNullMove() {
+		try {
+			IBoard board = new Board(fens[3]);
+			SearchBoard searchBoard = new SearchBoard(board);
+
+			searchBoard.makeNullMove();
+			assertBoardsEqual(new Board("r4rk1/1P4pp/p1N5/3pPp2/3p2n1/P1PP4/4BPPP/R2QK2R b KQ - 1 1"), searchBoard);
+			assertEquals(0, searchBoard.getLastMove(), "expected no last move");
+
+			searchBoard.unmakeMove();
+			assertBoardsEqual(board, searchBoard);
+			assertThrows(IllegalStateException.class, searchBoard::unmakeMove, "expected no move to take back");
+		} catch (BoardException e) {
+			fail(e);
+		}
+	}
+
+	/**
+	 * Test the detection of pawn endgames
+	 */
+	@Test
+	public void testHasNonPawnMaterial() {
+		try {
+			SearchBoard searchBoard = new SearchBoard(new Board("4k3/pppp4/8/8/8/8/4P3/4K2R w K - 0 1"));
+
+			assertTrue(searchBoard.hasNonPawnMaterial(Color.White), "expected the rook");
+			assertFalse(searchBoard.hasNonPawnMaterial(Color.Black), "expected only pawns");
+		} catch (BoardException e) {
+			fail(e);
+		}
+	}
+
+	private void assertBoardsEqual(IBoard expected, IBoard actual) {
+		for (int rank = 0; rank < 8; rank++) {
+			for (int file = 0; file < 8; file++) {
+				Position position = new Position(file, rank);
+				assertEquals(expected.pieceAt(position, Color.White), actual.pieceAt(position, Color.White),
+						"wrong piece");
+				assertEquals(expected.pieceAt(position, Color.Black), actual.pieceAt(position, Color.Black),
+						"wrong piece");
+			}
+		}
+
+		assertEquals(expected.getSideToMove(), actual.getSideToMove(), "wrong side to move");
+		assertEquals(expected.getCastleRights(Color.White), actual.getCastleRights(Color.White),
+				"wrong castle rights");
+		assertEquals(expected.getCastleRights(Color.Black), actual.getCastleRights(Color.Black),
+				"wrong castle rights");
+		assertEquals(expected.getZobristHash(), actual.getZobristHash(), "wrong hash");
+		assertEquals(expected.getStatus(), actual.getStatus(), "wrong status");
+		assertEquals(new HashSet<Move>(expected.getValidMoves()), new HashSet<Move>(actual.getValidMoves()),
+				"wrong valid moves");
+	}
+}
@@ -0,0 +1,88 @@
+package schach.board.simple;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import schach.board.*;
+
+/**
+ * Test class for {@link #StaticExchange}
+ */
+public class StaticExchangeTest {
+	// King, queen, rook, bishop, knight, pawn
+	private final static int[] values = { 0, 900, 460, 320, 310, 100 };
+
+	/**
+	 * Test a capture of a defended piece of more value
+	 */
+	@Test
+	public void testWinningCapture() {
+		assertEquals(210, see("4k3/8/3p4/4n3/3P4/8/8/4K3 w - - 0 1", 3, 3, 4, 4), "expected knight for pawn");
+	}
+
+	/**
+	 * Test a capture of a defended pawn with the queen
+	 */
+	@Test
+	public void testLosingCapture() {
+		assertEquals(-800, see("4k3/8/2p5/3p4/8/8/8/3QK3 w - - 0 1", 3, 0, 3, 4), "expected queen for pawn");
+	}
+
+	/**
+	 * Test that a rook behind the capturing rook joins the exchange
+	 */
+	@Test
+	public void testXRay() {
+		assertEquals(100, see("4k3/3r4/8/3p4/8/8/3R4/3RK3 w - - 0 1", 3, 1, 3, 4), "expected to win the pawn");
+		assertEquals(-360, see("3rk3/3r4/8/3p4/8/8/3R4/3RK3 w - - 0 1", 3, 1, 3, 4), "expected rook for pawn");
+	}
+
+	/**
+	 * Test a quiet move to a square attacked by a pawn
+	 */
+	@Test
+	public void testQuietMove() {
+		assertEquals(-310, see("4k3/8/3p4/8/8/5N2/8/4K3 w - - 0 1", 5, 2, 4, 4), "expected to lose the knight");
+		assertEquals(0, see("4k3/8/3p4/8/8/5N2/8/4K3 w - - 0 1", 5, 2, 6, 4), "expected a safe square");
+	}
+
+	/**
+	 * Test that the king does not capture on a defended square
+	 */
+	@Test
+	public void testKingCapture() {
+		assertEquals(100, see("8/8/4k3/3p4/8/2N5/8/3RK3 w - - 0 1", 2, 2, 3, 4), "expected no king capture");
+		assertEquals(-210, see("8/8/4k3/3p4/8/2N5/8/4K3 w - - 0 1", 2, 2, 3, 4), "expected the king to recapture");
+	}
+
+	/**
+	 * Test an en passant capture
+	 */
+	@Test
+	public void testEnPassant() {
+		assertEquals(100, see("4k3/8/8/3pP3/8/8/8/4K3 w - d6 0 1", 4, 4, 3, 5), "expected the pawn");
+	}
+
+	private int see(String fen, int fromFile, int fromRank, int toFile, int toRank) {
+		SearchBoard board = null;
+		try {
+			board = new SearchBoard(new Board(fen));
+		} catch (BoardException e) {
+			fail(e);
+		}
+
+		int[] moves = new int[PackedMove.maxMoves];
+		int count = board.getValidMoves(moves);
+		int from = fromFile + fromRank * 8;
+		int to = toFile + toRank * 8;
+		for (int i = 0; i < count; i++) {
+			if (PackedMove.getFrom(moves[i]) == from && PackedMove.getTo(moves[i]) == to) {
+				return board.staticExchange(moves[i], values);
+			}
+		}
+
+		fail("missing move");
+		return 0;
+	}
+}